@@ -0,0 +1,41 @@
+package com.inmobix.backend.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Detalle de propiedad (PropertyResponse) por UUID
+    public static final String PROPERTY_DETAILS = "propertyDetails";
+
+    @Value("${app.cache.property-details.max-size:10000}")
+    private long propertyDetailsMaxSize;
+
+    @Value("${app.cache.property-details.ttl-minutes:10}")
+    private long propertyDetailsTtlMinutes;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(PROPERTY_DETAILS);
+        // recordStats alimenta las métricas cache.gets / cache.evictions de Actuator
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(propertyDetailsMaxSize)
+                .expireAfterWrite(Duration.ofMinutes(propertyDetailsTtlMinutes))
+                .recordStats());
+        cacheManager.setAllowNullValues(false);
+
+        // Los evict/put dentro de una transacción se aplican solo después del commit,
+        // así una lectura concurrente no vuelve a cachear datos que luego se revierten
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,38 @@
+package com.inmobix.backend.config;
+
+import com.postmarkapp.postmark.Postmark;
+import com.postmarkapp.postmark.client.ApiClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class EmailConfig {
+
+    // Con app.email.stub=true los correos no salen del proceso (desarrollo sin red y pruebas)
+    @Bean
+    public ApiClient postmarkClient(@Value("${postmark.api.token:}") String apiToken,
+            @Value("${app.email.stub:false}") boolean stub,
+            @Value("${app.email.api-host:api.postmarkapp.com}") String apiHost,
+            @Value("${app.email.secure:true}") boolean secure,
+            @Value("${app.email.connect-timeout-seconds:5}") int connectTimeoutSeconds,
+            @Value("${app.email.read-timeout-seconds:15}") int readTimeoutSeconds) {
+        if (stub) {
+            System.out.println("✉️ EmailService en modo stub: los correos solo se registran en el log");
+            return new StubPostmarkClient();
+        }
+        if (apiToken == null || apiToken.trim().isEmpty()) {
+            throw new IllegalStateException(
+                    "POSTMARK_API_TOKEN no está configurado. " +
+                            "Por favor configura la variable de entorno POSTMARK_API_TOKEN o " +
+                            "agrega 'postmark.api.token' en application.properties");
+        }
+        ApiClient client = Postmark.getApiClient(apiToken, secure, apiHost);
+        // Las llamadas se hacen desde el despachador de la bandeja de salida: un Postmark lento no debe
+        // retenerlo indefinidamente
+        client.setConnectTimeoutSeconds(connectTimeoutSeconds);
+        client.setReadTimeoutSeconds(readTimeoutSeconds);
+        System.out.println("✅ EmailService inicializado correctamente con Postmark");
+        return client;
+    }
+}
@@ -0,0 +1,42 @@
+package com.inmobix.backend.config;
+
+import com.postmarkapp.postmark.client.ApiClient;
+import com.postmarkapp.postmark.client.data.model.message.Message;
+import com.postmarkapp.postmark.client.data.model.message.MessageResponse;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Cliente de Postmark que no hace llamadas HTTP: registra el correo en el log y responde como si se hubiera
+// aceptado, con un MessageID aleatorio
+public class StubPostmarkClient extends ApiClient {
+
+    public StubPostmarkClient() {
+        super("http://localhost", Map.of());
+    }
+
+    @Override
+    public MessageResponse deliverMessage(Message message) {
+        MessageResponse response = new MessageResponse();
+        response.setErrorCode(0);
+        response.setMessage("OK");
+        response.setTo(message.getTo());
+        response.setSubmittedAt(new Date());
+        response.setMessageId("stub-" + UUID.randomUUID());
+        System.out.println("✉️ [stub] " + message.getTo() + " - " + message.getSubject() + " ("
+                + response.getMessageId() + ")");
+        return response;
+    }
+
+    @Override
+    public List<MessageResponse> deliverMessage(List<Message> messages) {
+        List<MessageResponse> responses = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            responses.add(deliverMessage(message));
+        }
+        return responses;
+    }
+}
@@ -0,0 +1,32 @@
+package com.inmobix.backend.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Respuesta de descarga de las exportaciones CSV. Con gzip el archivo se entrega ya comprimido (.csv.gz)
+// en lugar de usar Content-Encoding, así el cliente guarda exactamente lo que recibió.
+final class CsvResponses {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    private CsvResponses() {
+    }
+
+    static ResponseEntity<StreamingResponseBody> attachment(String name, boolean gzip, StreamingResponseBody body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(gzip ? GZIP : TEXT_CSV);
+        headers.setContentDispositionFormData("attachment",
+                "export_" + name + "_" + LocalDateTime.now().format(
+                        DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + (gzip ? ".csv.gz" : ".csv"));
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(body);
+    }
+}
@@ -1,14 +1,25 @@
 package com.inmobix.backend.controller;
 
+import com.inmobix.backend.dto.CursorPage;
+import com.inmobix.backend.dto.ExportFormat;
+import com.inmobix.backend.dto.PropertyFacets;
 import com.inmobix.backend.dto.PropertyRequest;
 import com.inmobix.backend.dto.PropertyResponse;
+import com.inmobix.backend.dto.PropertySearchCriteria;
+import com.inmobix.backend.dto.PropertySummary;
+import com.inmobix.backend.exception.BadRequestException;
+import com.inmobix.backend.model.ReportType;
+import com.inmobix.backend.service.CsvExportService;
+import com.inmobix.backend.service.PropertyFacetService;
 import com.inmobix.backend.service.PropertyService;
+import com.inmobix.backend.service.ReportCacheService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.math.BigDecimal;
-import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -16,9 +27,16 @@ import java.util.UUID;
 public class PropertyController {
 
     private final PropertyService propertyService;
+    private final PropertyFacetService propertyFacetService;
+    private final ReportCacheService reportCacheService;
+    private final CsvExportService csvExportService;
 
-    public PropertyController(PropertyService propertyService) {
+    public PropertyController(PropertyService propertyService, PropertyFacetService propertyFacetService,
+            ReportCacheService reportCacheService, CsvExportService csvExportService) {
         this.propertyService = propertyService;
+        this.propertyFacetService = propertyFacetService;
+        this.reportCacheService = reportCacheService;
+        this.csvExportService = csvExportService;
     }
 
     // POST /api/properties - Crear nueva propiedad
@@ -33,10 +51,53 @@ public class PropertyController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
-    // GET /api/properties - Listar todas las propiedades
+    // GET /api/properties?cursor=&size= - Listar propiedades paginadas por cursor
     @GetMapping
-    public ResponseEntity<List<PropertyResponse>> getAllProperties() {
-        return ResponseEntity.ok(propertyService.getAll());
+    public ResponseEntity<CursorPage<?>> getAllProperties(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String view) {
+        return ResponseEntity.ok(propertyService.getAll(cursor, size, resolveView(view)));
+    }
+
+    // GET /api/properties/search - Búsqueda combinada por múltiples filtros
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<?>> searchProperties(
+            @Valid @ModelAttribute PropertySearchCriteria criteria,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String view) {
+        return ResponseEntity.ok(propertyService.search(criteria, cursor, size, resolveView(view)));
+    }
+
+    // GET /api/properties/export?format=json|ndjson - Exportar el catálogo completo en streaming
+    // (acepta los filtros de /search)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProperties(
+            @Valid @ModelAttribute PropertySearchCriteria criteria,
+            @RequestParam(defaultValue = "json") String format) {
+        ExportFormat exportFormat = resolveExportFormat(format);
+        // Antes de responder: un rango inválido es un 400 y no una descarga cortada
+        propertyService.validateRanges(criteria);
+        StreamingResponseBody body = out -> propertyService.exportCatalogue(criteria, exportFormat, out);
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat == ExportFormat.NDJSON ? MediaType.APPLICATION_NDJSON
+                        : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    // GET /api/properties/export.csv?gzip=true|false - Volcado CSV completo para integraciones de datos
+    @GetMapping("/export.csv")
+    public ResponseEntity<StreamingResponseBody> exportPropertiesCsv(@RequestParam(defaultValue = "false") boolean gzip) {
+        StreamingResponseBody body = out -> csvExportService.writeProperties(out, gzip);
+        return CsvResponses.attachment("propiedades", gzip, body);
+    }
+
+    // GET /api/properties/facets - Conteos por ciudad, tipo y transacción (acepta los filtros de /search)
+    @GetMapping("/facets")
+    public ResponseEntity<PropertyFacets> getFacets(@Valid @ModelAttribute PropertySearchCriteria criteria) {
+        return ResponseEntity.ok(propertyFacetService.getFacets(criteria));
     }
 
     // GET /api/properties/{id} - Obtener propiedad por ID
@@ -64,47 +125,75 @@ public class PropertyController {
 
     // GET /api/properties/available - Listar propiedades disponibles
     @GetMapping("/available")
-    public ResponseEntity<List<PropertyResponse>> getAvailableProperties() {
-        return ResponseEntity.ok(propertyService.getAvailableProperties());
+    public ResponseEntity<CursorPage<?>> getAvailableProperties(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String view) {
+        return ResponseEntity.ok(propertyService.getAvailableProperties(cursor, size, resolveView(view)));
     }
 
     // GET /api/properties/city/{city} - Buscar por ciudad
     @GetMapping("/city/{city}")
-    public ResponseEntity<List<PropertyResponse>> getPropertiesByCity(@PathVariable String city) {
-        return ResponseEntity.ok(propertyService.getByCity(city));
+    public ResponseEntity<CursorPage<?>> getPropertiesByCity(
+            @PathVariable String city,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String view) {
+        return ResponseEntity.ok(propertyService.getByCity(city, cursor, size, resolveView(view)));
     }
 
     // GET /api/properties/type/{propertyType} - Buscar por tipo de propiedad
     @GetMapping("/type/{propertyType}")
-    public ResponseEntity<List<PropertyResponse>> getPropertiesByType(@PathVariable String propertyType) {
-        return ResponseEntity.ok(propertyService.getByPropertyType(propertyType));
+    public ResponseEntity<CursorPage<?>> getPropertiesByType(
+            @PathVariable String propertyType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String view) {
+        return ResponseEntity.ok(propertyService.getByPropertyType(propertyType, cursor, size, resolveView(view)));
     }
 
     // GET /api/properties/transaction/{transactionType} - Buscar por tipo de
     // transacción
     @GetMapping("/transaction/{transactionType}")
-    public ResponseEntity<List<PropertyResponse>> getPropertiesByTransaction(@PathVariable String transactionType) {
-        return ResponseEntity.ok(propertyService.getByTransactionType(transactionType));
+    public ResponseEntity<CursorPage<?>> getPropertiesByTransaction(
+            @PathVariable String transactionType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String view) {
+        return ResponseEntity.ok(
+                propertyService.getByTransactionType(transactionType, cursor, size, resolveView(view)));
     }
 
     // GET /api/properties/price-range - Buscar por rango de precio
     @GetMapping("/price-range")
-    public ResponseEntity<List<PropertyResponse>> getPropertiesByPriceRange(
+    public ResponseEntity<CursorPage<?>> getPropertiesByPriceRange(
             @RequestParam BigDecimal minPrice,
-            @RequestParam BigDecimal maxPrice) {
-        return ResponseEntity.ok(propertyService.getByPriceRange(minPrice, maxPrice));
+            @RequestParam BigDecimal maxPrice,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String view) {
+        return ResponseEntity.ok(
+                propertyService.getByPriceRange(minPrice, maxPrice, cursor, size, resolveView(view)));
     }
 
     // GET /api/properties/user/{userId} - Buscar propiedades de un usuario
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<PropertyResponse>> getPropertiesByUser(@PathVariable UUID userId) {
-        return ResponseEntity.ok(propertyService.getByUserId(userId));
+    public ResponseEntity<CursorPage<?>> getPropertiesByUser(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String view) {
+        return ResponseEntity.ok(propertyService.getByUserId(userId, cursor, size, resolveView(view)));
     }
 
-    // GET /api/properties/report/pdf - Generar reporte PDF de propiedades
+    // GET /api/properties/report/pdf - Generar reporte PDF de propiedades (acepta los filtros de /search)
     @GetMapping("/report/pdf")
-    public ResponseEntity<byte[]> generatePropertiesPdfReport() {
-        byte[] pdfBytes = propertyService.generatePdfReport();
+    public ResponseEntity<StreamingResponseBody> generatePropertiesPdfReport(
+            @Valid @ModelAttribute PropertySearchCriteria criteria) {
+        // Antes de responder: un rango inválido es un 400 y no una descarga cortada
+        propertyService.validateRanges(criteria);
+        StreamingResponseBody body = out -> reportCacheService.write(ReportType.PROPERTIES_PDF, null, criteria,
+                out);
 
         org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
         headers.setContentType(org.springframework.http.MediaType.APPLICATION_PDF);
@@ -114,13 +203,17 @@ public class PropertyController {
 
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(pdfBytes);
+                .body(body);
     }
 
-    // GET /api/properties/report/excel - Generar reporte Excel de propiedades
+    // GET /api/properties/report/excel - Generar reporte Excel de propiedades (acepta los filtros de /search)
     @GetMapping("/report/excel")
-    public ResponseEntity<byte[]> generatePropertiesExcelReport() {
-        byte[] excelBytes = propertyService.generateExcelReport();
+    public ResponseEntity<StreamingResponseBody> generatePropertiesExcelReport(
+            @Valid @ModelAttribute PropertySearchCriteria criteria) {
+        // Antes de responder: un rango inválido es un 400 y no una descarga cortada
+        propertyService.validateRanges(criteria);
+        StreamingResponseBody body = out -> reportCacheService.write(ReportType.PROPERTIES_EXCEL, null, criteria,
+                out);
 
         org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
         headers.setContentType(org.springframework.http.MediaType.parseMediaType(
@@ -131,7 +224,27 @@ public class PropertyController {
 
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(excelBytes);
+                .body(body);
+    }
+
+    private ExportFormat resolveExportFormat(String format) {
+        if (format.equalsIgnoreCase("json")) {
+            return ExportFormat.JSON;
+        }
+        if (format.equalsIgnoreCase("ndjson")) {
+            return ExportFormat.NDJSON;
+        }
+        throw new BadRequestException("Formato no soportado: " + format + ". Valores permitidos: json, ndjson");
     }
 
-}
\ No newline at end of file
+    // view=summary devuelve solo los campos de tarjeta (PropertySummary); por defecto el detalle completo
+    private Class<?> resolveView(String view) {
+        if (view == null || view.isBlank() || view.equalsIgnoreCase("full")) {
+            return PropertyResponse.class;
+        }
+        if (view.equalsIgnoreCase("summary")) {
+            return PropertySummary.class;
+        }
+        throw new BadRequestException("Vista no soportada: " + view + ". Valores permitidos: full, summary");
+    }
+}
@@ -0,0 +1,136 @@
+package com.inmobix.backend.controller;
+
+import com.inmobix.backend.dto.ApiResponse;
+import com.inmobix.backend.dto.ReportJobRequest;
+import com.inmobix.backend.dto.ReportJobResponse;
+import com.inmobix.backend.exception.AuthenticationException;
+import com.inmobix.backend.model.ReportType;
+import com.inmobix.backend.model.Role;
+import com.inmobix.backend.service.ReportJob;
+import com.inmobix.backend.service.ReportJobService;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/reports/jobs")
+@Tag(name = "Reportes", description = "Generación de reportes en segundo plano")
+public class ReportJobController {
+
+    // Atributos de Tomcat para enviar el archivo con sendfile (copia cero desde el kernel)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ReportJobService reportJobService;
+
+    public ReportJobController(ReportJobService reportJobService) {
+        this.reportJobService = reportJobService;
+    }
+
+    // POST /api/reports/jobs - Encolar un reporte; responde 202 con el id del trabajo
+    @PostMapping
+    public ResponseEntity<ApiResponse<ReportJobResponse>> submit(
+            @Valid @RequestBody ReportJobRequest request,
+            @RequestHeader(value = "X-User-Id", required = false) UUID requesterId,
+            @RequestHeader(value = "X-User-Role", required = false) Role requesterRole) {
+        checkPermissions(request.getType(), request.getUserId(), requesterId, requesterRole);
+
+        ReportJob job = reportJobService.submit(request.getType(), request.getUserId(),
+                request.getFilters(), requesterId, requesterRole);
+        return ResponseEntity
+                .status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Reporte en cola", toResponse(job)));
+    }
+
+    // GET /api/reports/jobs/{id} - Consultar el estado del trabajo
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<ReportJobResponse>> getStatus(
+            @PathVariable UUID id,
+            @RequestHeader(value = "X-User-Id", required = false) UUID requesterId,
+            @RequestHeader(value = "X-User-Role", required = false) Role requesterRole) {
+        ReportJob job = reportJobService.getJob(id);
+        checkJobAccess(job, requesterId, requesterRole);
+        return ResponseEntity.ok(ApiResponse.success("Estado del reporte", toResponse(job)));
+    }
+
+    // GET /api/reports/jobs/{id}/download - Descargar el archivo generado
+    @GetMapping("/{id}/download")
+    public ResponseEntity<Resource> download(
+            @PathVariable UUID id,
+            @RequestHeader(value = "X-User-Id", required = false) UUID requesterId,
+            @RequestHeader(value = "X-User-Role", required = false) Role requesterRole,
+            HttpServletRequest request) {
+        checkJobAccess(reportJobService.getJob(id), requesterId, requesterRole);
+        ReportJob job = reportJobService.getCompletedJob(id);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(job.getType().getContentType()));
+        headers.setContentDispositionFormData("attachment", fileName(job));
+        headers.setContentLength(job.getSize());
+
+        // Con sendfile Tomcat copia el archivo al socket sin pasar por la JVM; sin soporte se hace por streams
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, job.getFile().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, job.getSize());
+            return ResponseEntity.ok().headers(headers).build();
+        }
+        return ResponseEntity.ok().headers(headers).body(new FileSystemResource(job.getFile()));
+    }
+
+    // Mismas reglas que los endpoints síncronos de reportes
+    private void checkPermissions(ReportType type, UUID userId, UUID requesterId, Role requesterRole) {
+        if (type == ReportType.USERS_PDF || type == ReportType.USERS_EXCEL) {
+            if (requesterRole != Role.ADMIN) {
+                throw new AuthenticationException("Solo administradores pueden generar reportes");
+            }
+        } else if (type.isPerUser()) {
+            if (requesterRole != Role.ADMIN
+                    && (requesterId == null || !requesterId.equals(userId))) {
+                throw new AuthenticationException("No tienes permisos para ver el reporte de este usuario");
+            }
+        }
+    }
+
+    // Estado y descarga: las mismas reglas del reporte y, salvo para administradores,
+    // solo quien encoló el trabajo puede consultarlo
+    private void checkJobAccess(ReportJob job, UUID requesterId, Role requesterRole) {
+        checkPermissions(job.getType(), job.getUserId(), requesterId, requesterRole);
+        if (requesterRole != Role.ADMIN && !Objects.equals(requesterId, job.getRequesterId())) {
+            throw new AuthenticationException("No tienes permisos para ver este reporte");
+        }
+    }
+
+    private ReportJobResponse toResponse(ReportJob job) {
+        boolean completed = job.getStatus() == ReportJob.Status.COMPLETED;
+        return new ReportJobResponse(
+                job.getId(),
+                job.getType(),
+                job.getStatus().name(),
+                fileName(job),
+                completed ? job.getSize() : null,
+                job.getError(),
+                completed ? "/api/reports/jobs/" + job.getId() + "/download" : null,
+                job.getCreatedAt(),
+                job.getFinishedAt());
+    }
+
+    private String fileName(ReportJob job) {
+        return job.getType().getFileNamePrefix() + "_"
+                + job.getCreatedAt().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"))
+                + "." + job.getType().getExtension();
+    }
+}
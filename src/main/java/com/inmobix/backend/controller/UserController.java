@@ -1,13 +1,18 @@
 package com.inmobix.backend.controller;
 
 import com.inmobix.backend.dto.*;
+import com.inmobix.backend.model.ReportType;
 import com.inmobix.backend.model.Role;
+import com.inmobix.backend.service.CsvExportService;
+import com.inmobix.backend.service.ReportCacheService;
+import com.inmobix.backend.service.UserReportBulkService;
 import com.inmobix.backend.service.UserService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
@@ -23,9 +28,16 @@ import java.time.format.DateTimeFormatter;
 public class UserController {
 
     private final UserService userService;
+    private final ReportCacheService reportCacheService;
+    private final CsvExportService csvExportService;
+    private final UserReportBulkService userReportBulkService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ReportCacheService reportCacheService,
+            CsvExportService csvExportService, UserReportBulkService userReportBulkService) {
         this.userService = userService;
+        this.reportCacheService = reportCacheService;
+        this.csvExportService = csvExportService;
+        this.userReportBulkService = userReportBulkService;
     }
 
     @PostMapping("/register")
@@ -84,11 +96,16 @@ public class UserController {
                 .ok(ApiResponse.success("Usuario encontrado", response));
     }
 
-    // Solo ADMIN
+    // Solo ADMIN. GET /api/users?q=&sort=name|email|username&direction=asc|desc&cursor=&size=
     @GetMapping("/users")
-    public ResponseEntity<ApiResponse<List<UserResponse>>> getAllUsers(
-            @RequestHeader("X-User-Role") Role requesterRole) {
-        List<UserResponse> users = userService.getAll(requesterRole);
+    public ResponseEntity<ApiResponse<CursorPage<UserResponse>>> getAllUsers(
+            @RequestHeader("X-User-Role") Role requesterRole,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        CursorPage<UserResponse> users = userService.getAll(requesterRole, q, sort, direction, cursor, size);
         return ResponseEntity
                 .ok(ApiResponse.success("Usuarios obtenidos exitosamente", users));
     }
@@ -127,15 +144,29 @@ public class UserController {
                 .ok(ApiResponse.success("Usuario eliminado exitosamente", null));
     }
 
+    // Exportar usuarios en CSV, sin contraseñas ni tokens (Solo ADMIN)
+    @GetMapping("/users/export.csv")
+    public ResponseEntity<StreamingResponseBody> exportUsersCsv(
+            @RequestHeader("X-User-Role") Role requesterRole,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        if (requesterRole != Role.ADMIN) {
+            throw new com.inmobix.backend.exception.AuthenticationException(
+                    "Solo administradores pueden exportar usuarios");
+        }
+
+        StreamingResponseBody body = out -> csvExportService.writeUsers(out, gzip);
+        return CsvResponses.attachment("usuarios", gzip, body);
+    }
+
     // Generar reporte PDF de usuarios (Solo ADMIN)
     @GetMapping("/users/report/pdf")
-    public ResponseEntity<byte[]> generateUsersPdfReport(@RequestHeader("X-User-Role") Role requesterRole) {
+    public ResponseEntity<StreamingResponseBody> generateUsersPdfReport(@RequestHeader("X-User-Role") Role requesterRole) {
         if (requesterRole != Role.ADMIN) {
             throw new com.inmobix.backend.exception.AuthenticationException(
                     "Solo administradores pueden generar reportes");
         }
 
-        byte[] pdfBytes = userService.generatePdfReport();
+        StreamingResponseBody body = out -> reportCacheService.write(ReportType.USERS_PDF, null, out);
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
@@ -145,18 +176,18 @@ public class UserController {
 
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(pdfBytes);
+                .body(body);
     }
 
     // Generar reporte Excel de usuarios (Solo ADMIN)
     @GetMapping("/users/report/excel")
-    public ResponseEntity<byte[]> generateUsersExcelReport(@RequestHeader("X-User-Role") Role requesterRole) {
+    public ResponseEntity<StreamingResponseBody> generateUsersExcelReport(@RequestHeader("X-User-Role") Role requesterRole) {
         if (requesterRole != Role.ADMIN) {
             throw new com.inmobix.backend.exception.AuthenticationException(
                     "Solo administradores pueden generar reportes");
         }
 
-        byte[] excelBytes = userService.generateExcelReport();
+        StreamingResponseBody body = out -> reportCacheService.write(ReportType.USERS_EXCEL, null, out);
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType(
@@ -167,12 +198,36 @@ public class UserController {
 
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(excelBytes);
+                .body(body);
+    }
+
+    // Reportes individuales de varios usuarios en un ZIP (Solo ADMIN)
+    @PostMapping("/users/reports/bulk")
+    public ResponseEntity<StreamingResponseBody> generateBulkUserReports(
+            @Valid @RequestBody BulkUserReportRequest request,
+            @RequestHeader("X-User-Role") Role requesterRole) {
+        if (requesterRole != Role.ADMIN) {
+            throw new com.inmobix.backend.exception.AuthenticationException(
+                    "Solo administradores pueden generar reportes");
+        }
+
+        List<UUID> userIds = userReportBulkService.resolveUserIds(request);
+        StreamingResponseBody body = out -> userReportBulkService.writeZip(request.getType(), userIds, out);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDispositionFormData("attachment",
+                "reportes_usuarios_" + LocalDateTime.now().format(
+                        DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".zip");
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(body);
     }
 
     // Generar reporte PDF de un usuario específico con sus propiedades
     @GetMapping("/user/{userId}/report/pdf")
-    public ResponseEntity<byte[]> generateUserPdfReport(
+    public ResponseEntity<StreamingResponseBody> generateUserPdfReport(
             @PathVariable UUID userId,
             @RequestHeader("X-User-Id") UUID requesterId,
             @RequestHeader("X-User-Role") Role requesterRole) {
@@ -183,7 +238,9 @@ public class UserController {
                     "No tienes permisos para ver el reporte de este usuario");
         }
 
-        byte[] pdfBytes = userService.generateUserPdfReport(userId);
+        userService.requireExists(userId);
+
+        StreamingResponseBody body = out -> reportCacheService.write(ReportType.USER_PDF, userId, out);
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
@@ -193,12 +250,12 @@ public class UserController {
 
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(pdfBytes);
+                .body(body);
     }
 
     // Generar reporte Excel de un usuario específico con sus propiedades
     @GetMapping("/user/{userId}/report/excel")
-    public ResponseEntity<byte[]> generateUserExcelReport(
+    public ResponseEntity<StreamingResponseBody> generateUserExcelReport(
             @PathVariable UUID userId,
             @RequestHeader("X-User-Id") UUID requesterId,
             @RequestHeader("X-User-Role") Role requesterRole) {
@@ -209,7 +266,9 @@ public class UserController {
                     "No tienes permisos para ver el reporte de este usuario");
         }
 
-        byte[] excelBytes = userService.generateUserExcelReport(userId);
+        userService.requireExists(userId);
+
+        StreamingResponseBody body = out -> reportCacheService.write(ReportType.USER_EXCEL, userId, out);
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType(
@@ -220,6 +279,6 @@ public class UserController {
 
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(excelBytes);
+                .body(body);
     }
 }
\ No newline at end of file
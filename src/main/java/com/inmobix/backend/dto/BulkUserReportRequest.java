@@ -0,0 +1,27 @@
+package com.inmobix.backend.dto;
+
+import com.inmobix.backend.model.ReportType;
+import com.inmobix.backend.model.Role;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+import java.util.UUID;
+
+// Reportes individuales de varios usuarios en un ZIP: por lista de ids o, si no se envía, por filtro
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkUserReportRequest {
+
+    @NotNull(message = "El tipo de reporte es obligatorio")
+    private ReportType type; // USER_PDF o USER_EXCEL
+
+    private List<UUID> userIds;
+
+    // Filtro opcional cuando no hay userIds; los campos nulos no se aplican
+    private Role role;
+
+    private Boolean verified;
+}
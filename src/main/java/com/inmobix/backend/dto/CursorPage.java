@@ -0,0 +1,21 @@
+package com.inmobix.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> content;
+
+    // Cursor opaco para pedir la siguiente página (null si no hay más)
+    private String nextCursor;
+
+    private boolean hasNext;
+
+    private int size;
+}
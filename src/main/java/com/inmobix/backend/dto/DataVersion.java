@@ -0,0 +1,16 @@
+package com.inmobix.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Versión de un conjunto de filas: cambia con cada alta, baja o modificación
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DataVersion {
+    private Long count;
+    private LocalDateTime lastModified; // null si no hay filas
+}
@@ -0,0 +1,7 @@
+package com.inmobix.backend.dto;
+
+// Formatos de exportación en streaming: arreglo JSON o un objeto JSON por línea (NDJSON)
+public enum ExportFormat {
+    JSON,
+    NDJSON
+}
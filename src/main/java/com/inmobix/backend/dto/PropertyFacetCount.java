@@ -0,0 +1,18 @@
+package com.inmobix.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Fila del GROUP BY de facetas: cantidad de propiedades por combinación de valores
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PropertyFacetCount {
+
+    private String city;
+    private String propertyType;
+    private String transactionType;
+    private Boolean available;
+    private Long count;
+}
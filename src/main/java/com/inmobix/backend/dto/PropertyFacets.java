@@ -0,0 +1,18 @@
+package com.inmobix.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.Map;
+
+// Conteos por ciudad, tipo de propiedad y tipo de transacción para la UI de búsqueda
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PropertyFacets {
+
+    private long total;
+    private Map<String, Long> cities;
+    private Map<String, Long> propertyTypes;
+    private Map<String, Long> transactionTypes;
+}
@@ -0,0 +1,57 @@
+package com.inmobix.backend.dto;
+
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+// Filtros opcionales de búsqueda; los campos nulos no se aplican
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PropertySearchCriteria {
+
+    private String city;
+
+    private String state;
+
+    private String propertyType; // casa, apartamento, local, lote, finca
+
+    private String transactionType; // venta, arriendo
+
+    @PositiveOrZero(message = "El precio mínimo no puede ser negativo")
+    private BigDecimal minPrice;
+
+    @PositiveOrZero(message = "El precio máximo no puede ser negativo")
+    private BigDecimal maxPrice;
+
+    @PositiveOrZero(message = "El área mínima no puede ser negativa")
+    private BigDecimal minArea;
+
+    @PositiveOrZero(message = "El área máxima no puede ser negativa")
+    private BigDecimal maxArea;
+
+    @PositiveOrZero(message = "El número mínimo de habitaciones no puede ser negativo")
+    private Integer minBedrooms;
+
+    @PositiveOrZero(message = "El número mínimo de baños no puede ser negativo")
+    private Integer minBathrooms;
+
+    @PositiveOrZero(message = "El número mínimo de garajes no puede ser negativo")
+    private Integer minGarages;
+
+    private Boolean available;
+
+    private UUID userId; // propietario
+
+    // Ventana de fecha de creación (yyyy-MM-dd); ambos extremos inclusive
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate createdTo;
+}
@@ -0,0 +1,24 @@
+package com.inmobix.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Vista reducida para tarjetas/grillas: solo las columnas que se muestran en el listado
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PropertySummary {
+
+    private UUID id;
+    private String title;
+    private BigDecimal price;
+    private String city;
+    private String propertyType;
+    private String imageUrl;
+    private Integer bedrooms;
+    private LocalDateTime createdAt;
+}
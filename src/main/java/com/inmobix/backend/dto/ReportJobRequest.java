@@ -0,0 +1,23 @@
+package com.inmobix.backend.dto;
+
+import com.inmobix.backend.model.ReportType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReportJobRequest {
+
+    @NotNull(message = "El tipo de reporte es obligatorio")
+    private ReportType type;
+
+    private UUID userId; // obligatorio para USER_PDF y USER_EXCEL
+
+    @Valid
+    private PropertySearchCriteria filters; // opcional, solo para PROPERTIES_PDF y PROPERTIES_EXCEL
+}
@@ -0,0 +1,24 @@
+package com.inmobix.backend.dto;
+
+import com.inmobix.backend.model.ReportType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReportJobResponse {
+
+    private UUID id;
+    private ReportType type;
+    private String status; // PENDING, RUNNING, COMPLETED, FAILED
+    private String fileName;
+    private Long size;
+    private String error;
+    private String downloadUrl; // solo cuando status = COMPLETED
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,7 @@
+package com.inmobix.backend.model;
+
+public enum EmailStatus {
+    PENDING, // en espera del primer intento o de un reintento
+    SENT,
+    FAILED // sin más reintentos
+}
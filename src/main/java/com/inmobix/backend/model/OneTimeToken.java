@@ -0,0 +1,52 @@
+package com.inmobix.backend.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+// Token de un solo uso de un usuario (verificación, recuperación, edición o eliminación). Solo se guardan
+// hashes: el token en claro existe únicamente en el correo y en la respuesta de la API.
+@Entity
+@Table(name = "one_time_tokens")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OneTimeToken {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    // Hash de "token:código" en los flujos que además piden el código de 6 dígitos
+    @Column(name = "code_hash", length = 64)
+    private String codeHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TokenPurpose purpose;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
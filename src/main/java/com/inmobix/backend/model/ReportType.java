@@ -0,0 +1,41 @@
+package com.inmobix.backend.model;
+
+public enum ReportType {
+    PROPERTIES_PDF("reporte_propiedades", "pdf", "application/pdf", false),
+    PROPERTIES_EXCEL("reporte_propiedades", "xlsx",
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", false),
+    USERS_PDF("reporte_usuarios", "pdf", "application/pdf", false),
+    USERS_EXCEL("reporte_usuarios", "xlsx",
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", false),
+    USER_PDF("reporte_usuario", "pdf", "application/pdf", true),
+    USER_EXCEL("reporte_usuario", "xlsx",
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", true);
+
+    private final String fileNamePrefix;
+    private final String extension;
+    private final String contentType;
+    private final boolean perUser; // requiere userId
+
+    ReportType(String fileNamePrefix, String extension, String contentType, boolean perUser) {
+        this.fileNamePrefix = fileNamePrefix;
+        this.extension = extension;
+        this.contentType = contentType;
+        this.perUser = perUser;
+    }
+
+    public String getFileNamePrefix() {
+        return fileNamePrefix;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public boolean isPerUser() {
+        return perUser;
+    }
+}
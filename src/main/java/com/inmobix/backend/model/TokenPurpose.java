@@ -0,0 +1,8 @@
+package com.inmobix.backend.model;
+
+public enum TokenPurpose {
+    VERIFICATION,
+    PASSWORD_RESET,
+    EDIT,
+    DELETE
+}
@@ -11,12 +11,21 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "users")
+// Nombres iguales a los de V1: UserService traduce la violación de cada uno a un mensaje de duplicado
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = User.UK_EMAIL, columnNames = "email"),
+        @UniqueConstraint(name = User.UK_USERNAME, columnNames = "username"),
+        @UniqueConstraint(name = User.UK_DOCUMENTO, columnNames = "documento")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class User {
 
+    public static final String UK_EMAIL = "uk_users_email";
+    public static final String UK_USERNAME = "uk_users_username";
+    public static final String UK_DOCUMENTO = "uk_users_documento";
+
     @Id
     @GeneratedValue
     private UUID id;
@@ -27,18 +36,17 @@ public class User {
 
     @NotBlank(message = "El email es obligatorio")
     @Email(message = "Debe ser un email válido")
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
     @NotBlank(message = "El username es obligatorio")
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String username;
 
     @NotBlank(message = "La contraseña es obligatoria")
     @Column(nullable = false)
     private String password;
 
-    @Column(unique = true)
     private String documento;
 
     private String phone;
@@ -49,20 +57,15 @@ public class User {
     @Column(nullable = false)
     private Role role = Role.USER;
 
-    // Sistema de verificación de email
+    // Sistema de verificación de email; los códigos y tokens de un solo uso están en OneTimeToken
     private boolean verified = false;
-    private String verificationCode;
-    private String verificationToken;
-    private LocalDateTime verificationCodeExpiry;
 
-    // Sistema de recuperación de contraseña
-    private String resetToken;
-    private String resetPasswordToken;
-    private LocalDateTime resetTokenExpiry;
+    // Última modificación; forma parte de la versión de datos de los reportes en caché
+    private LocalDateTime updatedAt;
 
-    // Tokens para editar y eliminar cuenta
-    private String editToken;
-    private LocalDateTime editTokenExpiry;
-    private String deleteToken;
-    private LocalDateTime deleteTokenExpiry;
-}
\ No newline at end of file
+    @PrePersist
+    @PreUpdate
+    protected void touch() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,42 @@
+package com.inmobix.backend.repository;
+
+import com.inmobix.backend.model.EmailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, UUID> {
+
+    // Pendientes vencidos, bloqueados para esta transacción. SKIP LOCKED: otro despachador (u otra instancia)
+    // toma filas distintas en lugar de esperar a que se liberen.
+    @Query(value = "SELECT * FROM email_outbox WHERE status = 'PENDING' AND next_attempt_at <= :now "
+            + "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EmailOutbox> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("update EmailOutbox e set e.status = com.inmobix.backend.model.EmailStatus.SENT, e.messageId = :messageId, "
+            + "e.sentAt = :sentAt, e.lastError = null where e.id = :id")
+    int markSent(@Param("id") UUID id, @Param("messageId") String messageId, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("update EmailOutbox e set e.nextAttemptAt = :nextAttemptAt, e.lastError = :error where e.id = :id")
+    int reschedule(@Param("id") UUID id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+            @Param("error") String error);
+
+    @Modifying
+    @Query("update EmailOutbox e set e.status = com.inmobix.backend.model.EmailStatus.FAILED, e.lastError = :error "
+            + "where e.id = :id")
+    int markFailed(@Param("id") UUID id, @Param("error") String error);
+
+    // Enviados y descartados: los dos guardan el cuerpo con códigos y enlaces de un solo uso. Los reintentos
+    // terminan en horas, así que created_at basta como referencia para los FAILED.
+    @Modifying
+    @Query("delete from EmailOutbox e where (e.status = com.inmobix.backend.model.EmailStatus.SENT "
+            + "and e.sentAt < :before) or (e.status = com.inmobix.backend.model.EmailStatus.FAILED "
+            + "and e.createdAt < :before)")
+    int deleteFinishedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,31 @@
+package com.inmobix.backend.repository;
+
+import com.inmobix.backend.model.OneTimeToken;
+import com.inmobix.backend.model.TokenPurpose;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface OneTimeTokenRepository extends JpaRepository<OneTimeToken, UUID> {
+
+    // Token recibido con su usuario en una sola consulta por el índice único de token_hash
+    @Query("select t from OneTimeToken t join fetch t.user where t.tokenHash = :tokenHash and t.purpose = :purpose")
+    Optional<OneTimeToken> findWithUser(@Param("tokenHash") String tokenHash, @Param("purpose") TokenPurpose purpose);
+
+    @Query("select t.expiresAt from OneTimeToken t where t.user.id = :userId and t.purpose = :purpose")
+    Optional<LocalDateTime> findExpiry(@Param("userId") UUID userId, @Param("purpose") TokenPurpose purpose);
+
+    @Modifying
+    @Query("delete from OneTimeToken t where t.user.id = :userId and t.purpose = :purpose")
+    int deleteByUserAndPurpose(@Param("userId") UUID userId, @Param("purpose") TokenPurpose purpose);
+
+    // Un lote de vencidos por sentencia, para no bloquear la tabla con un DELETE enorme
+    @Modifying
+    @Query(value = "DELETE FROM one_time_tokens WHERE id IN "
+            + "(SELECT id FROM one_time_tokens WHERE expires_at < :before LIMIT :limit)", nativeQuery = true)
+    int deleteExpiredBatch(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
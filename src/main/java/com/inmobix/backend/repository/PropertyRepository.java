@@ -1,37 +1,34 @@
 package com.inmobix.backend.repository;
 
+import com.inmobix.backend.dto.DataVersion;
 import com.inmobix.backend.model.Property;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface PropertyRepository extends JpaRepository<Property, UUID> {
+public interface PropertyRepository
+        extends JpaRepository<Property, UUID>, JpaSpecificationExecutor<Property>, PropertyRepositoryCustom {
 
-    // Buscar por ciudad
-    List<Property> findByCity(String city);
-
-    // Buscar por tipo de propiedad
-    List<Property> findByPropertyType(String propertyType);
-
-    // Buscar por tipo de transacción
-    List<Property> findByTransactionType(String transactionType);
-
-    // Buscar propiedades disponibles
-    List<Property> findByAvailableTrue();
-
-    // Buscar por rango de precio
-    List<Property> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
-
-    // Buscar por ciudad y tipo de transacción
-    List<Property> findByCityAndTransactionType(String city, String transactionType);
-
-    // Buscar por número mínimo de habitaciones
-    List<Property> findByBedroomsGreaterThanEqual(Integer bedrooms);
+    // Buscar por id trayendo el propietario en la misma consulta
+    @EntityGraph(attributePaths = "user")
+    Optional<Property> findWithUserById(UUID id);
 
     // Buscar propiedades por usuario
     List<Property> findByUserId(UUID userId);
 
+    // Versión de datos para la caché de reportes
+    @Query("select new com.inmobix.backend.dto.DataVersion(count(p), max(p.updatedAt)) from Property p")
+    DataVersion findDataVersion();
+
+    @Query("select new com.inmobix.backend.dto.DataVersion(count(p), max(p.updatedAt)) from Property p "
+            + "where p.user.id = :userId")
+    DataVersion findDataVersionByUserId(@Param("userId") UUID userId);
+
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.inmobix.backend.repository;
+
+import com.inmobix.backend.dto.PropertyFacetCount;
+import com.inmobix.backend.dto.PropertySummary;
+import com.inmobix.backend.model.Property;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface PropertyRepositoryCustom {
+
+    // Proyección por constructor: solo lee las columnas de PropertySummary
+    List<PropertySummary> findSummaries(Specification<Property> spec, Sort sort, int limit);
+
+    // Cursor de solo avance con fetch size: las filas se leen del socket a medida que se consumen.
+    // Debe consumirse y cerrarse dentro de una transacción.
+    Stream<Property> streamAll(Specification<Property> spec, Sort sort, int fetchSize);
+
+    // Conteos agrupados por ciudad, tipo, transacción y disponibilidad en una sola consulta
+    List<PropertyFacetCount> countFacets(Specification<Property> spec);
+}
@@ -0,0 +1,92 @@
+package com.inmobix.backend.repository;
+
+import com.inmobix.backend.dto.PropertyFacetCount;
+import com.inmobix.backend.dto.PropertySummary;
+import com.inmobix.backend.model.Property;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public class PropertyRepositoryImpl implements PropertyRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<PropertySummary> findSummaries(Specification<Property> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PropertySummary> query = cb.createQuery(PropertySummary.class);
+        Root<Property> root = query.from(Property.class);
+
+        query.select(cb.construct(PropertySummary.class,
+                root.get("id"),
+                root.get("title"),
+                root.get("price"),
+                root.get("city"),
+                root.get("propertyType"),
+                root.get("imageUrl"),
+                root.get("bedrooms"),
+                root.get("createdAt")));
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<Property> streamAll(Specification<Property> spec, Sort sort, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Property> query = cb.createQuery(Property.class);
+        Root<Property> root = query.from(Property.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public List<PropertyFacetCount> countFacets(Specification<Property> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PropertyFacetCount> query = cb.createQuery(PropertyFacetCount.class);
+        Root<Property> root = query.from(Property.class);
+
+        query.select(cb.construct(PropertyFacetCount.class,
+                root.get("city"),
+                root.get("propertyType"),
+                root.get("transactionType"),
+                root.get("available"),
+                cb.count(root)));
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.groupBy(root.get("city"), root.get("propertyType"), root.get("transactionType"),
+                root.get("available"));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+}
@@ -0,0 +1,148 @@
+package com.inmobix.backend.repository;
+
+import com.inmobix.backend.dto.PropertySearchCriteria;
+import com.inmobix.backend.exception.BadRequestException;
+import com.inmobix.backend.model.Property;
+import jakarta.persistence.criteria.JoinType;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.UUID;
+
+public final class PropertySpecifications {
+
+    // Orden estable para la paginación: más recientes primero, id como desempate
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    private PropertySpecifications() {
+    }
+
+    public static Specification<Property> all() {
+        return (root, query, cb) -> cb.conjunction();
+    }
+
+    // Trae el propietario en la misma sentencia para evitar un SELECT extra por fila.
+    // Solo aplica cuando la consulta devuelve entidades (no en conteos ni proyecciones).
+    public static Specification<Property> fetchOwner() {
+        return (root, query, cb) -> {
+            if (query.getResultType() == Property.class) {
+                root.fetch("user", JoinType.LEFT);
+            }
+            return cb.conjunction();
+        };
+    }
+
+    public static Specification<Property> isAvailable() {
+        return (root, query, cb) -> cb.isTrue(root.get("available"));
+    }
+
+    public static Specification<Property> hasCity(String city) {
+        return (root, query, cb) -> cb.equal(root.get("city"), city);
+    }
+
+    public static Specification<Property> hasPropertyType(String propertyType) {
+        return (root, query, cb) -> cb.equal(root.get("propertyType"), propertyType);
+    }
+
+    public static Specification<Property> hasTransactionType(String transactionType) {
+        return (root, query, cb) -> cb.equal(root.get("transactionType"), transactionType);
+    }
+
+    public static Specification<Property> priceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return (root, query, cb) -> cb.between(root.get("price"), minPrice, maxPrice);
+    }
+
+    public static Specification<Property> ownedBy(UUID userId) {
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    // Combina en una sola consulta todos los filtros presentes en los criterios
+    public static Specification<Property> matching(PropertySearchCriteria criteria) {
+        Specification<Property> spec = all();
+        if (hasText(criteria.getCity())) {
+            spec = spec.and(hasCity(criteria.getCity()));
+        }
+        if (hasText(criteria.getState())) {
+            spec = spec.and(equalTo("state", criteria.getState()));
+        }
+        if (hasText(criteria.getPropertyType())) {
+            spec = spec.and(hasPropertyType(criteria.getPropertyType()));
+        }
+        if (hasText(criteria.getTransactionType())) {
+            spec = spec.and(hasTransactionType(criteria.getTransactionType()));
+        }
+        if (criteria.getAvailable() != null) {
+            spec = spec.and(equalTo("available", criteria.getAvailable()));
+        }
+        if (criteria.getMinPrice() != null) {
+            spec = spec.and(atLeast("price", criteria.getMinPrice()));
+        }
+        if (criteria.getMaxPrice() != null) {
+            spec = spec.and(atMost("price", criteria.getMaxPrice()));
+        }
+        if (criteria.getMinArea() != null) {
+            spec = spec.and(atLeast("area", criteria.getMinArea()));
+        }
+        if (criteria.getMaxArea() != null) {
+            spec = spec.and(atMost("area", criteria.getMaxArea()));
+        }
+        if (criteria.getMinBedrooms() != null) {
+            spec = spec.and(atLeast("bedrooms", criteria.getMinBedrooms()));
+        }
+        if (criteria.getMinBathrooms() != null) {
+            spec = spec.and(atLeast("bathrooms", criteria.getMinBathrooms()));
+        }
+        if (criteria.getMinGarages() != null) {
+            spec = spec.and(atLeast("garages", criteria.getMinGarages()));
+        }
+        if (criteria.getUserId() != null) {
+            spec = spec.and(ownedBy(criteria.getUserId()));
+        }
+        if (criteria.getCreatedFrom() != null) {
+            spec = spec.and(atLeast("createdAt", criteria.getCreatedFrom().atStartOfDay()));
+        }
+        if (criteria.getCreatedTo() != null) {
+            // Hasta el final del día indicado
+            spec = spec.and(before("createdAt", criteria.getCreatedTo().plusDays(1).atStartOfDay()));
+        }
+        return spec;
+    }
+
+    private static Specification<Property> equalTo(String attribute, Object value) {
+        return (root, query, cb) -> cb.equal(root.get(attribute), value);
+    }
+
+    private static <Y extends Comparable<? super Y>> Specification<Property> atLeast(String attribute, Y value) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get(attribute), value);
+    }
+
+    private static <Y extends Comparable<? super Y>> Specification<Property> atMost(String attribute, Y value) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get(attribute), value);
+    }
+
+    private static Specification<Property> before(String attribute, LocalDateTime value) {
+        return (root, query, cb) -> cb.lessThan(root.get(attribute), value);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    // Filas estrictamente posteriores al cursor según NEWEST_FIRST
+    public static Specification<Property> after(KeysetCursor cursor) {
+        LocalDateTime createdAt;
+        try {
+            createdAt = LocalDateTime.parse(cursor.key());
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Cursor de paginación inválido");
+        }
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("createdAt"), createdAt),
+                cb.and(
+                        cb.equal(root.get("createdAt"), createdAt),
+                        cb.lessThan(root.get("id"), cursor.id())));
+    }
+}
@@ -1,22 +1,51 @@
 package com.inmobix.backend.repository;
 
+import com.inmobix.backend.dto.DataVersion;
+import com.inmobix.backend.model.Role;
 import com.inmobix.backend.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface UserRepository extends JpaRepository<User, UUID> {
+public interface UserRepository extends JpaRepository<User, UUID>, UserRepositoryCustom {
     Optional<User> findByEmail(String email);
     Optional<User> findByUsername(String username);
     Optional<User> findByDocumento(String documento);
 
-    // NUEVO - Búsqueda por tokens únicos
-    Optional<User> findByVerificationToken(String verificationToken);
-    Optional<User> findByResetPasswordToken(String resetPasswordToken);
+    // Recorrido por keyset sobre el id, página a página (reportes)
+    List<User> findAllByOrderByIdAsc(Limit limit);
+    List<User> findByIdGreaterThanOrderByIdAsc(UUID id, Limit limit);
 
-    // Mantener para compatibilidad
-    Optional<User> findByVerificationCode(String code);
-    Optional<User> findByResetToken(String token);
-    Optional<User> findByEditToken(String token);
-    Optional<User> findByDeleteToken(String token);
-}
\ No newline at end of file
+    // Versión de datos para la caché de reportes
+    @Query("select new com.inmobix.backend.dto.DataVersion(count(u), max(u.updatedAt)) from User u")
+    DataVersion findDataVersion();
+
+    @Query("select new com.inmobix.backend.dto.DataVersion(count(u), max(u.updatedAt)) from User u where u.id = :id")
+    DataVersion findDataVersionById(@Param("id") UUID id);
+
+    // Reportes masivos: ids a incluir y, por lote, cada usuario con sus propiedades en una sola consulta.
+    // Cada fila es [User, Property]; un usuario sin propiedades trae una fila con Property null.
+    @Query("select u.id from User u where u.id in :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    @Query("select u.id from User u where (:role is null or u.role = :role) "
+            + "and (:verified is null or u.verified = :verified) order by u.id")
+    List<UUID> findIdsByRoleAndVerified(@Param("role") Role role, @Param("verified") Boolean verified, Limit limit);
+
+    @Query("select u, p from User u left join Property p on p.user = u where u.id in :ids "
+            + "order by u.id, p.createdAt desc, p.id desc")
+    List<Object[]> findWithPropertiesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // Hash recalculado en el login con el factor de trabajo actual
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.id = :id")
+    int updatePassword(@Param("id") UUID id, @Param("password") String password);
+}
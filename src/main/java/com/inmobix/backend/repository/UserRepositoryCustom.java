@@ -0,0 +1,14 @@
+package com.inmobix.backend.repository;
+
+import com.inmobix.backend.dto.UserResponse;
+import com.inmobix.backend.model.User;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface UserRepositoryCustom {
+
+    // Proyección: solo lee las columnas de UserResponse (sin contraseña)
+    List<UserResponse> findResponses(Specification<User> spec, Sort sort, int limit);
+}
@@ -0,0 +1,71 @@
+package com.inmobix.backend.repository;
+
+import com.inmobix.backend.exception.BadRequestException;
+import com.inmobix.backend.model.User;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Locale;
+
+// Filtros y orden del listado de usuarios (/api/users); los índices que los cubren están en V6
+public final class UserSpecifications {
+
+    // Columnas por las que se puede ordenar el listado; el id desempata
+    public static final List<String> SORTABLE = List.of("name", "email", "username");
+
+    private UserSpecifications() {
+    }
+
+    public static Specification<User> all() {
+        return (root, query, cb) -> cb.conjunction();
+    }
+
+    // Prefijo de nombre, email o documento, sin distinguir mayúsculas
+    public static Specification<User> matchingPrefix(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return all();
+        }
+        String pattern = escapeLike(prefix.trim().toLowerCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("name")), pattern, '\\'),
+                cb.like(cb.lower(root.get("email")), pattern, '\\'),
+                cb.like(cb.lower(root.get("documento")), pattern, '\\'));
+    }
+
+    public static Sort sort(String field, Sort.Direction direction) {
+        return Sort.by(new Sort.Order(direction, field), new Sort.Order(direction, "id"));
+    }
+
+    public static String validSortField(String field) {
+        if (field == null || field.isBlank()) {
+            return SORTABLE.get(0);
+        }
+        if (!SORTABLE.contains(field)) {
+            throw new BadRequestException("No se puede ordenar por '" + field + "'. Valores permitidos: " + SORTABLE);
+        }
+        return field;
+    }
+
+    // Filas estrictamente posteriores al cursor en el orden (field, id). El primer término (field >= key) es
+    // redundante, pero deja que la consulta recorra el índice desde la posición del cursor.
+    public static Specification<User> after(KeysetCursor cursor, String field, Sort.Direction direction) {
+        String key = cursor.key();
+        if (direction.isAscending()) {
+            return (root, query, cb) -> cb.and(
+                    cb.greaterThanOrEqualTo(root.get(field), key),
+                    cb.or(
+                            cb.greaterThan(root.get(field), key),
+                            cb.and(cb.equal(root.get(field), key), cb.greaterThan(root.get("id"), cursor.id()))));
+        }
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.get(field), key),
+                cb.or(
+                        cb.lessThan(root.get(field), key),
+                        cb.and(cb.equal(root.get(field), key), cb.lessThan(root.get("id"), cursor.id()))));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,108 @@
+package com.inmobix.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.zip.GZIPOutputStream;
+
+// Exportación CSV para integraciones de datos. Se salta JPA: las filas se leen con un cursor JDBC
+// (fetch size; dentro de una transacción para que el driver no cargue todo el resultado) y cada columna
+// se copia del ResultSet al búfer de CsvWriter, que se vacía directo en la respuesta.
+@Service
+public class CsvExportService {
+
+    private static final String PROPERTIES_SQL = "SELECT id, title, description, address, city, state, price, area, "
+            + "bedrooms, bathrooms, garages, property_type, transaction_type, available, image_url, created_at, "
+            + "updated_at, id_user AS user_id FROM properties ORDER BY created_at DESC, id DESC";
+
+    // Sin contraseñas ni tokens
+    private static final String USERS_SQL = "SELECT id, name, email, username, documento, phone, birth_date, role, "
+            + "verified FROM users ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.export.fetch-size:500}")
+    private int fetchSize;
+
+    @Value("${app.export.csv-buffer-size:65536}")
+    private int bufferSize;
+
+    public CsvExportService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional(readOnly = true)
+    public void writeProperties(OutputStream out, boolean gzip) throws IOException {
+        write(PROPERTIES_SQL, out, gzip);
+    }
+
+    @Transactional(readOnly = true)
+    public void writeUsers(OutputStream out, boolean gzip) throws IOException {
+        write(USERS_SQL, out, gzip);
+    }
+
+    private void write(String sql, OutputStream out, boolean gzip) throws IOException {
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, bufferSize) : null;
+        CsvWriter csv = new CsvWriter(compressed != null ? compressed : out, bufferSize);
+
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                        ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                return statement;
+            }, (ResultSetExtractor<Void>) rs -> {
+                try {
+                    writeRows(rs, csv);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+        } catch (UncheckedIOException e) {
+            // Normalmente el cliente cortó la descarga
+            throw e.getCause();
+        }
+
+        csv.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+    }
+
+    // Encabezado con los nombres de columna; los booleanos como true/false (PostgreSQL devuelve t/f como texto)
+    private static void writeRows(ResultSet rs, CsvWriter csv) throws SQLException, IOException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columns = metaData.getColumnCount();
+        boolean[] booleans = new boolean[columns + 1];
+        for (int i = 1; i <= columns; i++) {
+            int type = metaData.getColumnType(i);
+            booleans[i] = type == Types.BOOLEAN || type == Types.BIT;
+            csv.field(metaData.getColumnLabel(i));
+        }
+        csv.endRow();
+
+        while (rs.next()) {
+            for (int i = 1; i <= columns; i++) {
+                if (booleans[i]) {
+                    boolean value = rs.getBoolean(i);
+                    csv.field(rs.wasNull() ? null : value ? "true" : "false");
+                } else {
+                    csv.field(rs.getString(i));
+                }
+            }
+            csv.endRow();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.inmobix.backend.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Escritor CSV (RFC 4180) que codifica los valores en UTF-8 directo sobre un único búfer de bytes
+// reutilizado y lo vacía a la salida cada vez que se llena: no hay Writer, encoder ni Strings
+// intermedios por fila. La salida no se cierra.
+final class CsvWriter {
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int position;
+    private boolean rowStart = true;
+
+    CsvWriter(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.buffer = new byte[bufferSize];
+    }
+
+    // null se escribe como campo vacío
+    void field(String value) throws IOException {
+        if (!rowStart) {
+            put(',');
+        }
+        rowStart = false;
+        if (value == null) {
+            return;
+        }
+        if (needsQuotes(value)) {
+            put('"');
+            encode(value, true);
+            put('"');
+        } else {
+            encode(value, false);
+        }
+    }
+
+    void endRow() throws IOException {
+        put('\r');
+        put('\n');
+        rowStart = true;
+    }
+
+    void flush() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+        out.flush();
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Dentro de un campo entre comillas, las comillas se duplican
+    private void encode(String value, boolean quoted) throws IOException {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (quoted && c == '"') {
+                    put('"');
+                }
+                put(c);
+            } else if (c < 0x800) {
+                put(0xC0 | (c >> 6));
+                put(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                put(0xF0 | (codePoint >> 18));
+                put(0x80 | ((codePoint >> 12) & 0x3F));
+                put(0x80 | ((codePoint >> 6) & 0x3F));
+                put(0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Surrogate huérfano: no es representable en UTF-8
+                put('?');
+            } else {
+                put(0xE0 | (c >> 12));
+                put(0x80 | ((c >> 6) & 0x3F));
+                put(0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void put(int b) throws IOException {
+        if (position == buffer.length) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        buffer[position++] = (byte) b;
+    }
+}
@@ -0,0 +1,27 @@
+package com.inmobix.backend.service;
+
+// Parámetros de cada correo: un record por plantilla (ver EmailTemplate). Los nombres de sus componentes son los
+// marcadores {{...}} de la plantilla, así que un valor fuera de lugar no compila en lugar de enviar un correo mal.
+public sealed interface EmailMessage {
+
+    record Verification(String name, String code) implements EmailMessage {
+    }
+
+    record ResendVerification(String name, String code) implements EmailMessage {
+    }
+
+    record VerificationSuccess(String name, String url) implements EmailMessage {
+    }
+
+    record PasswordReset(String name, String code) implements EmailMessage {
+    }
+
+    record PasswordResetSuccess(String name, String date, String url) implements EmailMessage {
+    }
+
+    record EditConfirmation(String name, String token) implements EmailMessage {
+    }
+
+    record DeleteConfirmation(String name, String token) implements EmailMessage {
+    }
+}
@@ -0,0 +1,257 @@
+package com.inmobix.backend.service;
+
+import com.inmobix.backend.model.EmailOutbox;
+import com.inmobix.backend.repository.EmailOutboxRepository;
+import com.postmarkapp.postmark.client.ApiClient;
+import com.postmarkapp.postmark.client.data.model.message.Message;
+import com.postmarkapp.postmark.client.data.model.message.MessageResponse;
+import com.postmarkapp.postmark.client.exception.InvalidMessageException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Entrega los correos de email_outbox. Cada ronda toma un lote de pendientes vencidos con SKIP LOCKED y los
+// reserva (lease) corriendo su próximo intento, en una transacción corta; las llamadas a Postmark se hacen
+// fuera de toda transacción, así ninguna conexión del pool espera al proveedor. Si el proceso muere con un
+// lote reservado, esos correos vuelven a estar disponibles al vencer el lease (entrega al menos una vez).
+// Cada lote sale en una sola petición al endpoint batch de Postmark y el resultado de cada mensaje se
+// aplica a su fila.
+@Service
+public class EmailOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    // Límite de mensajes por petición del endpoint /email/batch de Postmark
+    private static final int POSTMARK_MAX_BATCH = 500;
+
+    private final EmailOutboxRepository outboxRepository;
+    private final ApiClient postmarkClient;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary batchSizes;
+
+    // Un solo hilo para las entregas disparadas por commits. El primer aviso abre una ventana de
+    // batchWindowMs; los que llegan durante ella se envían en la misma ronda
+    private final ScheduledExecutorService wakeUpExecutor =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("email-outbox-"));
+    private final AtomicInteger queuedSinceDispatch = new AtomicInteger();
+
+    @Value("${postmark.from.email}")
+    private String fromEmail;
+
+    @Value("${postmark.from.name}")
+    private String fromName;
+
+    @Value("${app.email.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.email.outbox.batch-window-ms:200}")
+    private long batchWindowMs;
+
+    @Value("${app.email.outbox.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${app.email.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.email.outbox.initial-backoff-seconds:30}")
+    private long initialBackoffSeconds;
+
+    @Value("${app.email.outbox.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    @Value("${app.email.outbox.retention-days:7}")
+    private long retentionDays;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository, ApiClient postmarkClient,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.postmarkClient = postmarkClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.batchSizes = DistributionSummary.builder("email.postmark.batch.size")
+                .description("Mensajes por petición al endpoint batch de Postmark")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void validateBatchSize() {
+        if (batchSize < 1 || batchSize > POSTMARK_MAX_BATCH) {
+            throw new IllegalStateException("app.email.outbox.batch-size debe estar entre 1 y " + POSTMARK_MAX_BATCH);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        wakeUpExecutor.shutdownNow();
+    }
+
+    // Llamado después del commit que encoló un correo; no bloquea a quien lo llama
+    public void wakeUp() {
+        int queued = queuedSinceDispatch.incrementAndGet();
+        try {
+            if (queued == 1) {
+                wakeUpExecutor.schedule(this::dispatchQueued, batchWindowMs, TimeUnit.MILLISECONDS);
+            } else if (queued == batchSize) {
+                // Lote completo antes de cerrar la ventana: no tiene sentido seguir esperando
+                wakeUpExecutor.execute(this::dispatchQueued);
+            }
+        } catch (RejectedExecutionException e) {
+            // Cerrando la aplicación: lo entregará el sondeo al volver a arrancar
+        }
+    }
+
+    private void dispatchQueued() {
+        if (queuedSinceDispatch.getAndSet(0) > 0) {
+            dispatchDue();
+        }
+    }
+
+    // Sondeo periódico: reintentos vencidos, leases expirados y avisos perdidos
+    @Scheduled(initialDelayString = "${app.email.outbox.poll-interval-ms:5000}",
+            fixedDelayString = "${app.email.outbox.poll-interval-ms:5000}")
+    public void dispatchDue() {
+        try {
+            List<EmailOutbox> batch;
+            do {
+                batch = claimDue();
+                if (!batch.isEmpty()) {
+                    deliver(batch);
+                }
+            } while (batch.size() == batchSize);
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ Error al despachar la bandeja de correos: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.outbox.cleanup-interval-ms:3600000}")
+    public void deleteOldFinished() {
+        transactionTemplate.executeWithoutResult(status ->
+                outboxRepository.deleteFinishedBefore(LocalDateTime.now().minusDays(retentionDays)));
+    }
+
+    private List<EmailOutbox> claimDue() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutbox> due = outboxRepository.lockDue(now, batchSize);
+            for (EmailOutbox email : due) {
+                email.setAttempts(email.getAttempts() + 1);
+                email.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+            }
+            return due;
+        });
+    }
+
+    private void deliver(List<EmailOutbox> batch) {
+        List<MessageResponse> responses;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        batchSizes.record(batch.size());
+        try {
+            responses = postmarkClient.deliverMessage(batch.stream().map(this::toMessage).toList());
+            sample.stop(postmarkTimer("success"));
+        } catch (InvalidMessageException e) {
+            sample.stop(postmarkTimer("rejected"));
+            if (batch.size() == 1) {
+                // Rechazado por Postmark (destinatario inválido, remitente no confirmado...): reintentar no sirve
+                fail(batch.get(0), e.getMessage());
+                return;
+            }
+            // Postmark rechazó la petición completa: uno a uno se descarta solo el mensaje inválido
+            batch.forEach(email -> deliver(List.of(email)));
+            return;
+        } catch (Exception e) {
+            sample.stop(postmarkTimer("error"));
+            batch.forEach(email -> retryOrFail(email, e.getMessage()));
+            return;
+        }
+
+        // Postmark responde un resultado por mensaje, en el mismo orden del lote; todos se guardan en una
+        // sola transacción
+        int sent = transactionTemplate.execute(status -> applyResults(batch, responses));
+        System.out.println("✅ Lote de correos enviado - " + sent + " de " + batch.size() + " aceptados");
+    }
+
+    private int applyResults(List<EmailOutbox> batch, List<MessageResponse> responses) {
+        LocalDateTime sentAt = LocalDateTime.now();
+        int sent = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            EmailOutbox email = batch.get(i);
+            MessageResponse response = i < responses.size() ? responses.get(i) : null;
+            if (response == null) {
+                retryOrFail(email, "Postmark no devolvió resultado para el mensaje");
+            } else if (response.getErrorCode() == null || response.getErrorCode() == 0) {
+                outboxRepository.markSent(email.getId(), response.getMessageId(), sentAt);
+                sent++;
+            } else {
+                // Errores por mensaje del endpoint batch: validación del destinatario o del contenido
+                fail(email, response.getErrorCode() + ": " + response.getMessage());
+            }
+        }
+        return sent;
+    }
+
+    private void retryOrFail(EmailOutbox email, String error) {
+        if (email.getAttempts() >= maxAttempts) {
+            fail(email, error);
+            return;
+        }
+        LocalDateTime next = LocalDateTime.now().plusSeconds(backoffSeconds(email.getAttempts()));
+        transactionTemplate.executeWithoutResult(status ->
+                outboxRepository.reschedule(email.getId(), next, truncate(error)));
+        System.err.println("⚠️ Error al enviar correo a " + email.getRecipient() + " (intento "
+                + email.getAttempts() + ", reintento " + next + "): " + error);
+    }
+
+    private void fail(EmailOutbox email, String error) {
+        transactionTemplate.executeWithoutResult(status ->
+                outboxRepository.markFailed(email.getId(), truncate(error)));
+        System.err.println("❌ Correo a " + email.getRecipient() + " descartado tras " + email.getAttempts()
+                + " intento(s): " + error);
+    }
+
+    // Exponencial: initial, 2x, 4x... hasta maxBackoffSeconds
+    private long backoffSeconds(int attempts) {
+        int exponent = Math.min(attempts - 1, 30);
+        return Math.min(initialBackoffSeconds << exponent, maxBackoffSeconds);
+    }
+
+    // outcome: success (Postmark respondió, aunque rechace mensajes sueltos), rejected (422 de la petición
+    // completa) o error (red, timeout o error del servidor)
+    private Timer postmarkTimer(String outcome) {
+        return Timer.builder("email.postmark.requests")
+                .description("Duración de las llamadas al endpoint batch de Postmark")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Message toMessage(EmailOutbox email) {
+        // El constructor de Message recibe el HTML; la versión texto se asigna aparte
+        Message message = new Message(fromName + " <" + fromEmail + ">", email.getRecipient(), email.getSubject(),
+                email.getHtmlBody());
+        message.setTextBody(email.getTextBody());
+        message.setReplyTo("noreply@inmobix.com");
+        return message;
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
@@ -0,0 +1,50 @@
+package com.inmobix.backend.service;
+
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.List;
+
+// Correos transaccionales. Cada uno tiene dos plantillas en templates/email/ (<archivo>.html y <archivo>.txt)
+// con marcadores {{parametro}}; los parámetros son los componentes de su record en EmailMessage.
+public enum EmailTemplate {
+
+    VERIFICATION("verification", "Verifica tu cuenta de Inmobix", EmailMessage.Verification.class),
+    RESEND_VERIFICATION("resend-verification", "Verifica tu cuenta de Inmobix",
+            EmailMessage.ResendVerification.class),
+    VERIFICATION_SUCCESS("verification-success", "✅ Cuenta verificada - Inmobix",
+            EmailMessage.VerificationSuccess.class),
+    PASSWORD_RESET("password-reset", "Restablecer contraseña - Inmobix", EmailMessage.PasswordReset.class),
+    PASSWORD_RESET_SUCCESS("password-reset-success", "✅ Contraseña actualizada - Inmobix",
+            EmailMessage.PasswordResetSuccess.class),
+    EDIT_CONFIRMATION("edit-confirmation", "Confirmar edición - Inmobix", EmailMessage.EditConfirmation.class),
+    DELETE_CONFIRMATION("delete-confirmation", "⚠️ Confirmar eliminación - Inmobix",
+            EmailMessage.DeleteConfirmation.class);
+
+    private final String file;
+    private final String subject;
+    private final Class<? extends EmailMessage> messageType;
+    private final List<String> parameters;
+
+    EmailTemplate(String file, String subject, Class<? extends EmailMessage> messageType) {
+        this.file = file;
+        this.subject = subject;
+        this.messageType = messageType;
+        this.parameters = Arrays.stream(messageType.getRecordComponents()).map(RecordComponent::getName).toList();
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Class<? extends EmailMessage> getMessageType() {
+        return messageType;
+    }
+
+    public List<String> getParameters() {
+        return parameters;
+    }
+}
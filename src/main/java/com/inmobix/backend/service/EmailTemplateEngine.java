@@ -0,0 +1,194 @@
+package com.inmobix.backend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Plantillas de correo. Cada archivo se lee y se divide una sola vez al arrancar en segmentos (texto fijo o
+// índice de parámetro), así un marcador mal escrito hace fallar el arranque y no el envío. Al renderizar se
+// generan juntas la versión HTML (valores escapados) y la de texto, sobre un buffer reutilizado por hilo.
+// La plantilla se elige por el tipo del mensaje (EmailMessage) y los valores salen de sus componentes.
+@Service
+public class EmailTemplateEngine {
+
+    private static final String LOCATION = "templates/email/";
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private final Map<Class<? extends EmailMessage>, Compiled> templates = new HashMap<>();
+    private final ThreadLocal<StringBuilder> buffer =
+            ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUFFER_SIZE));
+
+    public EmailTemplateEngine(MeterRegistry meterRegistry) {
+        for (EmailTemplate template : EmailTemplate.values()) {
+            Segment[] html = parse(template, template.getFile() + ".html");
+            Segment[] text = parse(template, template.getFile() + ".txt");
+            checkAllParametersUsed(template, html, text);
+            Timer timer = Timer.builder("email.template.render")
+                    .description("Tiempo de renderizado de las plantillas de correo (HTML y texto)")
+                    .tag("template", template.getFile())
+                    .register(meterRegistry);
+            Method[] accessors = Arrays.stream(template.getMessageType().getRecordComponents())
+                    .map(RecordComponent::getAccessor)
+                    .toArray(Method[]::new);
+            Compiled compiled = new Compiled(template, html, text, accessors, timer);
+            if (templates.put(template.getMessageType(), compiled) != null) {
+                throw new IllegalStateException("El mensaje " + template.getMessageType().getSimpleName()
+                        + " está asociado a más de una plantilla");
+            }
+        }
+        System.out.println("✅ " + templates.size() + " plantillas de correo cargadas");
+    }
+
+    public RenderedEmail render(EmailMessage message) {
+        Compiled compiled = templates.get(message.getClass());
+        long start = System.nanoTime();
+        String[] values = values(message, compiled.accessors());
+
+        StringBuilder out = buffer.get();
+        out.setLength(0);
+        write(compiled.html(), values, true, out);
+        String html = out.toString();
+
+        out.setLength(0);
+        write(compiled.text(), values, false, out);
+        String text = out.toString();
+
+        // Un correo muy grande no debe dejar retenido un buffer enorme en el hilo
+        if (out.capacity() > INITIAL_BUFFER_SIZE * 8) {
+            buffer.remove();
+        }
+
+        compiled.timer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new RenderedEmail(compiled.template().getSubject(), html, text);
+    }
+
+    // En el orden de los componentes del record, el mismo de EmailTemplate.getParameters()
+    private static String[] values(EmailMessage message, Method[] accessors) {
+        String[] values = new String[accessors.length];
+        try {
+            for (int i = 0; i < accessors.length; i++) {
+                values[i] = (String) accessors[i].invoke(message);
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se pudieron leer los parámetros de " + message, e);
+        }
+        return values;
+    }
+
+    private static void write(Segment[] segments, String[] values, boolean escapeHtml, StringBuilder out) {
+        for (Segment segment : segments) {
+            if (segment.text() != null) {
+                out.append(segment.text());
+            } else if (escapeHtml) {
+                appendEscaped(values[segment.parameter()], out);
+            } else {
+                out.append(values[segment.parameter()]);
+            }
+        }
+    }
+
+    // Los valores vienen del usuario (nombre) o de la configuración: no se interpretan como HTML
+    private static void appendEscaped(String value, StringBuilder out) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private static Segment[] parse(EmailTemplate template, String file) {
+        String source = read(file);
+        List<Segment> segments = new ArrayList<>();
+        int position = 0;
+        while (position < source.length()) {
+            int open = source.indexOf("{{", position);
+            if (open < 0) {
+                segments.add(Segment.text(source.substring(position)));
+                break;
+            }
+            int close = source.indexOf("}}", open);
+            if (close < 0) {
+                throw new IllegalStateException("Marcador sin cerrar en " + file);
+            }
+            if (open > position) {
+                segments.add(Segment.text(source.substring(position, open)));
+            }
+            String name = source.substring(open + 2, close).trim();
+            int index = template.getParameters().indexOf(name);
+            if (index < 0) {
+                throw new IllegalStateException("Parámetro desconocido {{" + name + "}} en " + file
+                        + ". Parámetros de " + template + ": " + template.getParameters());
+            }
+            segments.add(Segment.parameter(index));
+            position = close + 2;
+        }
+        return segments.toArray(Segment[]::new);
+    }
+
+    private static void checkAllParametersUsed(EmailTemplate template, Segment[] html, Segment[] text) {
+        boolean[] used = new boolean[template.getParameters().size()];
+        for (Segment[] segments : List.of(html, text)) {
+            for (Segment segment : segments) {
+                if (segment.text() == null) {
+                    used[segment.parameter()] = true;
+                }
+            }
+        }
+        for (int i = 0; i < used.length; i++) {
+            if (!used[i]) {
+                throw new IllegalStateException("La plantilla " + template + " no usa el parámetro "
+                        + template.getParameters().get(i));
+            }
+        }
+    }
+
+    private static String read(String file) {
+        try (InputStream in = new ClassPathResource(LOCATION + file).getInputStream()) {
+            // El salto de línea final del archivo no forma parte del correo
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).strip();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer la plantilla de correo " + LOCATION + file, e);
+        }
+    }
+
+    public record RenderedEmail(String subject, String html, String text) {
+    }
+
+    private record Segment(String text, int parameter) {
+
+        static Segment text(String text) {
+            return new Segment(text, -1);
+        }
+
+        static Segment parameter(int index) {
+            return new Segment(null, index);
+        }
+    }
+
+    private record Compiled(EmailTemplate template, Segment[] html, Segment[] text, Method[] accessors,
+            Timer timer) {
+    }
+}
@@ -0,0 +1,268 @@
+package com.inmobix.backend.service;
+
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.VerticalAlignment;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Libro Excel de un reporte en streaming (SXSSF) con una sola hoja que se llena de arriba hacia abajo.
+// Los estilos y fuentes de POI pertenecen al libro: se crean la primera vez que se usan y se reutilizan
+// en todas las celdas, nunca uno por fila.
+final class ExcelReport implements AutoCloseable {
+
+    private enum StyleKind {
+        TITLE, SUMMARY, SECTION, NOTE,
+        DETAIL_ITEM_TITLE, DETAIL_FIELD, DETAIL_VALUE,
+        COMPACT_ITEM_TITLE, COMPACT_FIELD, DATA,
+        TABLE_HEADER, ALTERNATE
+    }
+
+    // Altura por defecto de una línea y caracteres por línea por cada unidad de ancho de columna
+    private static final float LINE_HEIGHT = 15f;
+    private static final int WIDTH_PER_CHAR = 300;
+
+    private final SXSSFWorkbook workbook;
+    private final Sheet sheet;
+    private final int valueColumnWidth;
+    private final Map<StyleKind, CellStyle> styles = new EnumMap<>(StyleKind.class);
+    private final Map<String, Font> fonts = new HashMap<>();
+    private int nextRow;
+
+    // windowSize: filas que quedan en memoria antes de volcarse al temporal comprimido
+    ExcelReport(int windowSize, String sheetName, int... columnWidths) {
+        workbook = new SXSSFWorkbook(windowSize);
+        workbook.setCompressTempFiles(true);
+        sheet = workbook.createSheet(sheetName);
+        for (int i = 0; i < columnWidths.length; i++) {
+            sheet.setColumnWidth(i, columnWidths[i]);
+        }
+        valueColumnWidth = columnWidths.length > 1 ? columnWidths[1] : 0;
+    }
+
+    void title(String text, int lastColumn) {
+        Row row = sheet.createRow(nextRow);
+        row.setHeight((short) 600);
+        cell(row, 0, text, StyleKind.TITLE);
+        merge(lastColumn);
+    }
+
+    void generatedAt(int lastColumn) {
+        row().createCell(0).setCellValue(ReportTemplates.generatedAt());
+        merge(lastColumn);
+    }
+
+    void summary(String text, int lastColumn) {
+        Row row = sheet.createRow(nextRow);
+        row.setHeight((short) 400);
+        cell(row, 0, text, StyleKind.SUMMARY);
+        merge(lastColumn);
+    }
+
+    // Encabezado de sección a lo ancho de las dos columnas clave-valor
+    void section(String text) {
+        Row row = sheet.createRow(nextRow);
+        cell(row, 0, text, StyleKind.SECTION);
+        row.createCell(1).setCellStyle(style(StyleKind.SECTION));
+        merge(1);
+    }
+
+    void text(String text, int lastColumn) {
+        row().createCell(0).setCellValue(text);
+        merge(lastColumn);
+    }
+
+    void note(String text) {
+        cell(row(), 0, text, StyleKind.NOTE);
+        nextRow++;
+    }
+
+    void skip(int rows) {
+        nextRow += rows;
+    }
+
+    // Título del elemento seguido de sus filas clave-valor
+    <T> void item(String title, ReportTemplate<T> template, T item) {
+        Row row = sheet.createRow(nextRow);
+        if (template.layout() == ReportTemplate.Layout.DETAIL) {
+            row.setHeight((short) 400);
+            cell(row, 0, title, StyleKind.DETAIL_ITEM_TITLE);
+        } else {
+            cell(row, 0, title, StyleKind.COMPACT_ITEM_TITLE);
+            row.createCell(1).setCellStyle(style(StyleKind.COMPACT_ITEM_TITLE));
+        }
+        merge(1);
+        keyValues(template, item);
+    }
+
+    <T> void keyValues(ReportTemplate<T> template, T item) {
+        boolean detail = template.layout() == ReportTemplate.Layout.DETAIL;
+        for (ReportField<T> field : template.fields()) {
+            String value = field.value().apply(item);
+            if (value == null) {
+                continue;
+            }
+            Row row = row();
+            cell(row, 0, field.label(), detail ? StyleKind.DETAIL_FIELD : StyleKind.COMPACT_FIELD);
+            cell(row, 1, value, detail ? StyleKind.DETAIL_VALUE : StyleKind.DATA);
+            nextRow++;
+
+            // Los valores largos se ajustan en varias líneas: la fila crece según el ancho de la columna
+            if (detail && valueColumnWidth > 0) {
+                int lines = (int) Math.ceil((double) value.length() / (valueColumnWidth / WIDTH_PER_CHAR));
+                if (lines > 1) {
+                    row.setHeightInPoints(lines * LINE_HEIGHT);
+                }
+            }
+        }
+    }
+
+    <T> void tableHeader(ReportTemplate<T> template) {
+        Row row = row();
+        List<ReportField<T>> fields = template.fields();
+        for (int i = 0; i < fields.size(); i++) {
+            cell(row, i, fields.get(i).label(), StyleKind.TABLE_HEADER);
+        }
+        nextRow++;
+    }
+
+    // Filas con fondo alterno para facilitar la lectura
+    <T> void tableRow(ReportTemplate<T> template, T item) {
+        Row row = row();
+        StyleKind kind = nextRow % 2 == 0 ? StyleKind.DATA : StyleKind.ALTERNATE;
+        List<ReportField<T>> fields = template.fields();
+        for (int i = 0; i < fields.size(); i++) {
+            cell(row, i, fields.get(i).value().apply(item), kind);
+        }
+        nextRow++;
+    }
+
+    void write(OutputStream out) throws IOException {
+        workbook.write(out);
+    }
+
+    // Borra los temporales de SXSSF; la salida no se cierra
+    @Override
+    public void close() {
+        workbook.dispose();
+    }
+
+    private Row row() {
+        return sheet.createRow(nextRow);
+    }
+
+    private void cell(Row row, int column, String value, StyleKind kind) {
+        Cell cell = row.createCell(column);
+        cell.setCellValue(value);
+        cell.setCellStyle(style(kind));
+    }
+
+    // Combina las columnas 0..lastColumn de la fila actual y pasa a la siguiente. Sin validar
+    // solapamientos (O(n²) en POI): las filas solo se agregan hacia abajo y nunca se combinan dos veces.
+    private void merge(int lastColumn) {
+        sheet.addMergedRegionUnsafe(new CellRangeAddress(nextRow, nextRow, 0, lastColumn));
+        nextRow++;
+    }
+
+    private CellStyle style(StyleKind kind) {
+        return styles.computeIfAbsent(kind, this::createStyle);
+    }
+
+    private CellStyle createStyle(StyleKind kind) {
+        CellStyle style = workbook.createCellStyle();
+        switch (kind) {
+            case TITLE -> {
+                style.setFont(font(true, false, 16, IndexedColors.WHITE));
+                fill(style, IndexedColors.DARK_BLUE);
+                style.setAlignment(HorizontalAlignment.CENTER);
+                style.setVerticalAlignment(VerticalAlignment.CENTER);
+            }
+            case SUMMARY -> style.setFont(font(true, false, 0, null));
+            case SECTION -> {
+                style.setFont(font(true, false, 12, IndexedColors.WHITE));
+                fill(style, IndexedColors.LIGHT_BLUE);
+            }
+            case NOTE -> style.setFont(font(false, true, 0, null));
+            case DETAIL_ITEM_TITLE -> {
+                style.setFont(font(true, false, 12, IndexedColors.WHITE));
+                fill(style, IndexedColors.LIGHT_BLUE);
+                style.setAlignment(HorizontalAlignment.CENTER);
+            }
+            case DETAIL_FIELD -> {
+                style.setFont(font(true, false, 0, null));
+                fill(style, IndexedColors.GREY_25_PERCENT);
+                borders(style);
+                style.setWrapText(true);
+                style.setVerticalAlignment(VerticalAlignment.TOP);
+            }
+            case DETAIL_VALUE -> {
+                borders(style);
+                style.setWrapText(true);
+                style.setVerticalAlignment(VerticalAlignment.TOP);
+            }
+            case COMPACT_ITEM_TITLE -> {
+                style.setFont(font(true, false, 11, IndexedColors.WHITE));
+                fill(style, IndexedColors.GREEN);
+            }
+            case COMPACT_FIELD -> {
+                style.setFont(font(true, false, 0, null));
+                borders(style);
+            }
+            case DATA -> borders(style);
+            case TABLE_HEADER -> {
+                style.setFont(font(true, false, 0, null));
+                fill(style, IndexedColors.LIGHT_BLUE);
+                style.setAlignment(HorizontalAlignment.CENTER);
+                borders(style);
+            }
+            case ALTERNATE -> {
+                borders(style);
+                fill(style, IndexedColors.GREY_25_PERCENT);
+            }
+        }
+        return style;
+    }
+
+    // heightInPoints 0 y color null dejan los valores por defecto del libro
+    private Font font(boolean bold, boolean italic, int heightInPoints, IndexedColors color) {
+        String key = bold + ":" + italic + ":" + heightInPoints + ":" + color;
+        return fonts.computeIfAbsent(key, k -> {
+            Font font = workbook.createFont();
+            font.setBold(bold);
+            font.setItalic(italic);
+            if (heightInPoints > 0) {
+                font.setFontHeightInPoints((short) heightInPoints);
+            }
+            if (color != null) {
+                font.setColor(color.getIndex());
+            }
+            return font;
+        });
+    }
+
+    private static void fill(CellStyle style, IndexedColors color) {
+        style.setFillForegroundColor(color.getIndex());
+        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+    }
+
+    private static void borders(CellStyle style) {
+        style.setBorderBottom(BorderStyle.THIN);
+        style.setBorderTop(BorderStyle.THIN);
+        style.setBorderLeft(BorderStyle.THIN);
+        style.setBorderRight(BorderStyle.THIN);
+    }
+}
@@ -0,0 +1,54 @@
+package com.inmobix.backend.service;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+// Recorre una consulta por páginas de keyset: la siguiente página se pide solo cuando se agota la actual
+// y antes se llama a onChunkDone (EntityManager::clear), así en memoria vive una sola página a la vez.
+// fetchAfter recibe el último elemento de la página anterior, o null para la primera.
+final class KeysetChunks<T> implements Iterable<T> {
+
+    private final int chunkSize;
+    private final Function<T, List<T>> fetchAfter;
+    private final Runnable onChunkDone;
+
+    KeysetChunks(int chunkSize, Function<T, List<T>> fetchAfter, Runnable onChunkDone) {
+        this.chunkSize = chunkSize;
+        this.fetchAfter = fetchAfter;
+        this.onChunkDone = onChunkDone;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private List<T> chunk = fetchAfter.apply(null);
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                if (position < chunk.size()) {
+                    return true;
+                }
+                // Una página incompleta es la última
+                if (chunk.size() < chunkSize) {
+                    return false;
+                }
+                T last = chunk.get(chunk.size() - 1);
+                onChunkDone.run();
+                chunk = fetchAfter.apply(last);
+                position = 0;
+                return !chunk.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk.get(position++);
+            }
+        };
+    }
+}
@@ -0,0 +1,144 @@
+package com.inmobix.backend.service;
+
+import com.inmobix.backend.model.OneTimeToken;
+import com.inmobix.backend.model.TokenPurpose;
+import com.inmobix.backend.model.User;
+import com.inmobix.backend.repository.OneTimeTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+// Tokens de un solo uso en la tabla one_time_tokens. Se busca por el SHA-256 del token (índice único), así
+// cada flujo resuelve token y usuario en una consulta y la tabla no sirve para suplantar a nadie si se filtra.
+// Hay como mucho un token por usuario y propósito; emitir uno nuevo reemplaza al anterior.
+@Service
+public class OneTimeTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int TOKEN_BYTES = 32;
+
+    private final OneTimeTokenRepository repository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.tokens.sweep-batch-size:1000}")
+    private int sweepBatchSize;
+
+    // Los vencidos se conservan un tiempo para responder "ha expirado" en lugar de "inválido"
+    @Value("${app.tokens.expired-grace-minutes:60}")
+    private long expiredGraceMinutes;
+
+    public OneTimeTokenService(OneTimeTokenRepository repository, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Se llama dentro de la transacción que modifica al usuario; el usuario ya debe estar persistido
+    @Transactional(propagation = Propagation.MANDATORY)
+    public IssuedToken issue(User user, TokenPurpose purpose, Duration ttl, boolean withCode) {
+        repository.deleteByUserAndPurpose(user.getId(), purpose);
+
+        String token = generateToken();
+        String code = withCode ? generateSixDigitCode() : null;
+        LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+
+        OneTimeToken entity = new OneTimeToken();
+        entity.setTokenHash(sha256(token));
+        entity.setCodeHash(withCode ? codeHash(token, code) : null);
+        entity.setPurpose(purpose);
+        entity.setUser(user);
+        entity.setExpiresAt(expiresAt);
+        repository.save(entity);
+
+        return new IssuedToken(token, code, expiresAt);
+    }
+
+    // Token con su usuario ya cargado; vacío si no existe o es de otro propósito
+    public Optional<OneTimeToken> find(String token, TokenPurpose purpose) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        return repository.findWithUser(sha256(token), purpose);
+    }
+
+    public boolean codeMatches(OneTimeToken entity, String token, String code) {
+        if (entity.getCodeHash() == null || code == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(entity.getCodeHash().getBytes(StandardCharsets.US_ASCII),
+                codeHash(token, code).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public boolean isExpired(OneTimeToken entity) {
+        return entity.getExpiresAt().isBefore(LocalDateTime.now());
+    }
+
+    public void consume(OneTimeToken entity) {
+        repository.delete(entity);
+    }
+
+    // Vencimiento del token vigente, para el límite de reenvío
+    public Optional<LocalDateTime> activeExpiry(UUID userId, TokenPurpose purpose) {
+        return repository.findExpiry(userId, purpose).filter(expiry -> expiry.isAfter(LocalDateTime.now()));
+    }
+
+    // Borra los vencidos por lotes, cada lote en su transacción
+    @Scheduled(initialDelayString = "${app.tokens.sweep-interval-ms:300000}",
+            fixedDelayString = "${app.tokens.sweep-interval-ms:300000}")
+    public int sweepExpired() {
+        LocalDateTime before = LocalDateTime.now().minusMinutes(expiredGraceMinutes);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> repository.deleteExpiredBatch(before, sweepBatchSize));
+            total += deleted;
+        } while (deleted == sweepBatchSize);
+
+        if (total > 0) {
+            System.out.println("🧹 " + total + " tokens vencidos eliminados");
+        }
+        return total;
+    }
+
+    private static String generateToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String generateSixDigitCode() {
+        return String.valueOf(RANDOM.nextInt(900000) + 100000);
+    }
+
+    // Igual que en V5__one_time_tokens.sql: sha256(token) y sha256(token + ":" + código), en hexadecimal
+    private static String codeHash(String token, String code) {
+        return sha256(token + ":" + code);
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Valores en claro recién emitidos: van al correo y, según el flujo, en la respuesta
+    public record IssuedToken(String token, String code, LocalDateTime expiresAt) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.inmobix.backend.service;
+
+import com.inmobix.backend.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// BCrypt en un pool propio y acotado: cada hash consume decenas de milisegundos de CPU y hacerlo en los hilos
+// de Tomcat deja que una ráfaga de logins acapare el servidor. Como mucho `threads` hashes corren a la vez y
+// `queue-capacity` esperan; el resto se rechaza de inmediato con 503 en lugar de encolar sin límite.
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.security.password.threads:2}")
+    private int threads;
+
+    @Value("${app.security.password.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Value("${app.security.password.wait-timeout-ms:5000}")
+    private long waitTimeoutMs;
+
+    private ThreadPoolExecutor executor;
+    private Timer encodeTimer;
+    private Timer matchesTimer;
+    private Timer queueTimer;
+    private Counter rejected;
+    private Counter upgraded;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder, MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        encodeTimer = hashTimer("encode");
+        matchesTimer = hashTimer("matches");
+        queueTimer = Timer.builder("password.hash.queue")
+                .description("Espera en la cola del pool de hashing antes de empezar")
+                .register(meterRegistry);
+        rejected = Counter.builder("password.hash.rejected")
+                .description("Operaciones de hashing rechazadas por pool lleno o espera agotada")
+                .register(meterRegistry);
+        upgraded = Counter.builder("password.hash.upgraded")
+                .description("Hashes recalculados en el login con el factor de trabajo actual")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.queue.size", executor, e -> e.getQueue().size())
+                .description("Operaciones de hashing en espera")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Operaciones de hashing en curso")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public String encode(String rawPassword) {
+        return run(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    // Hash guardado con un factor de trabajo menor al configurado: se recalcula aprovechando que el login
+    // tiene la contraseña en claro. Es opcional; si el pool está lleno se intenta en el siguiente login.
+    public String upgradeIfNeeded(String rawPassword, String encodedPassword) {
+        if (!passwordEncoder.upgradeEncoding(encodedPassword)) {
+            return null;
+        }
+        try {
+            String upgradedHash = encode(rawPassword);
+            upgraded.increment();
+            return upgradedHash;
+        } catch (ServiceUnavailableException e) {
+            return null;
+        }
+    }
+
+    private <T> T run(Timer timer, Callable<T> operation) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(operation);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw busy();
+        }
+
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw busy();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private Timer hashTimer(String operation) {
+        return Timer.builder("password.hash")
+                .description("Tiempo de CPU de BCrypt por operación")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static ServiceUnavailableException busy() {
+        return new ServiceUnavailableException(
+                "El servicio de autenticación está ocupado. Intenta de nuevo en unos segundos");
+    }
+}
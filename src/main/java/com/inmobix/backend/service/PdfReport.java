@@ -0,0 +1,189 @@
+package com.inmobix.backend.service;
+
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+
+import java.io.OutputStream;
+
+// Documento PDF de un reporte, escrito directo en la salida. Colores y anchos de columna son constantes
+// compartidas entre renders; el formato se aplica con setters sobre cada elemento (más barato en iText
+// que asociar objetos Style, que se resuelven en cada consulta de propiedad durante el layout).
+final class PdfReport {
+
+    private static final DeviceRgb PRIMARY = new DeviceRgb(46, 134, 193);
+    private static final DeviceRgb ACCENT = new DeviceRgb(39, 174, 96);
+    private static final DeviceRgb FIELD_BACKGROUND = new DeviceRgb(240, 248, 255);
+
+    private static final float[] DETAIL_WIDTHS = { 100f, 420f };
+    private static final float[] COMPACT_WIDTHS = { 2, 4 };
+
+    private final Document document;
+
+    private PdfReport(Document document) {
+        this.document = document;
+    }
+
+    // La salida no se cierra: la maneja quien la entrega (respuesta HTTP, archivo, caché)
+    static PdfReport open(OutputStream out) {
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
+        return new PdfReport(new Document(new PdfDocument(writer), PageSize.A4));
+    }
+
+    void title(String text) {
+        document.add(new Paragraph(text)
+                .setFontSize(24)
+                .setBold()
+                .setFontColor(PRIMARY)
+                .setTextAlignment(TextAlignment.CENTER));
+    }
+
+    void generatedAt(float marginBottom) {
+        document.add(new Paragraph(ReportTemplates.generatedAt())
+                .setFontSize(10)
+                .setItalic()
+                .setTextAlignment(TextAlignment.CENTER)
+                .setMarginBottom(marginBottom));
+    }
+
+    void summary(String text, float marginBottom) {
+        document.add(new Paragraph(text)
+                .setFontSize(12)
+                .setBold()
+                .setMarginBottom(marginBottom));
+    }
+
+    void section(String text) {
+        document.add(sectionParagraph(text));
+    }
+
+    void section(String text, float marginTop) {
+        document.add(sectionParagraph(text).setMarginTop(marginTop));
+    }
+
+    void note(String text) {
+        document.add(new Paragraph(text).setFontSize(11).setItalic());
+    }
+
+    void note(String text, float marginBottom) {
+        document.add(new Paragraph(text).setFontSize(11).setItalic().setMarginBottom(marginBottom));
+    }
+
+    // Título del elemento seguido de su tabla clave-valor
+    <T> void item(String title, ReportTemplate<T> template, T item) {
+        Paragraph heading = new Paragraph(title).setBold().setMarginTop(15);
+        if (template.layout() == ReportTemplate.Layout.DETAIL) {
+            heading.setFontSize(14).setFontColor(PRIMARY).setMarginBottom(10);
+        } else {
+            heading.setFontSize(13).setFontColor(ACCENT).setMarginBottom(5);
+        }
+        document.add(heading);
+        keyValues(template, item);
+    }
+
+    // Tabla de dos columnas (campo | valor) con los campos de la plantilla
+    <T> void keyValues(ReportTemplate<T> template, T item) {
+        boolean detail = template.layout() == ReportTemplate.Layout.DETAIL;
+        Table table;
+        if (detail) {
+            table = new Table(UnitValue.createPointArray(DETAIL_WIDTHS))
+                    .setWidth(UnitValue.createPercentValue(100));
+            table.setFixedLayout();
+        } else {
+            table = new Table(UnitValue.createPercentArray(COMPACT_WIDTHS)).useAllAvailableWidth();
+        }
+
+        for (ReportField<T> field : template.fields()) {
+            String value = field.value().apply(item);
+            if (value == null) {
+                continue;
+            }
+            if (detail) {
+                table.addCell(new Cell()
+                        .add(new Paragraph(field.label()).setBold().setFontSize(9))
+                        .setBackgroundColor(FIELD_BACKGROUND)
+                        .setPadding(5));
+                table.addCell(new Cell().add(new Paragraph(value).setFontSize(9)).setPadding(5));
+            } else {
+                table.addCell(new Cell().add(new Paragraph(field.label()).setBold()));
+                table.addCell(new Cell().add(new Paragraph(value)));
+            }
+        }
+        document.add(table);
+    }
+
+    // Tabla en modo "large table": se agrega al documento de inmediato y se vacía cada flushRows filas,
+    // así las celdas ya escritas no quedan retenidas en memoria
+    <T> LargeTable<T> table(ReportTemplate<T> template, float[] columnWidths, int flushRows) {
+        Table table = new Table(UnitValue.createPercentArray(columnWidths), true).useAllAvailableWidth();
+        for (ReportField<T> field : template.fields()) {
+            table.addHeaderCell(new Cell()
+                    .add(new Paragraph(field.label()).setBold())
+                    .setBackgroundColor(PRIMARY)
+                    .setFontColor(ColorConstants.WHITE)
+                    .setTextAlignment(TextAlignment.CENTER));
+        }
+        document.add(table);
+        return new LargeTable<>(table, template, flushRows);
+    }
+
+    void footer(float marginTop) {
+        document.add(new Paragraph("Inmobix - Sistema de Gestión Inmobiliaria")
+                .setFontSize(8)
+                .setItalic()
+                .setTextAlignment(TextAlignment.CENTER)
+                .setMarginTop(marginTop));
+    }
+
+    void close() {
+        document.close();
+    }
+
+    private static Paragraph sectionParagraph(String text) {
+        return new Paragraph(text)
+                .setFontSize(16)
+                .setBold()
+                .setFontColor(PRIMARY)
+                .setMarginBottom(10);
+    }
+
+    static final class LargeTable<T> {
+
+        private final Table table;
+        private final ReportTemplate<T> template;
+        private final int flushRows;
+        private int rows;
+
+        private LargeTable(Table table, ReportTemplate<T> template, int flushRows) {
+            this.table = table;
+            this.template = template;
+            this.flushRows = flushRows;
+        }
+
+        void addRow(T item) {
+            for (ReportField<T> field : template.fields()) {
+                Cell cell = new Cell().add(new Paragraph(field.value().apply(item)));
+                if (field.centered()) {
+                    cell.setTextAlignment(TextAlignment.CENTER);
+                }
+                table.addCell(cell);
+            }
+            if (++rows % flushRows == 0) {
+                table.flush();
+            }
+        }
+
+        void complete() {
+            table.complete();
+        }
+    }
+}
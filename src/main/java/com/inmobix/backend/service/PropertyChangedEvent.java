@@ -0,0 +1,17 @@
+package com.inmobix.backend.service;
+
+import com.inmobix.backend.model.Property;
+
+// Publicado por PropertyService al crear, actualizar o eliminar una propiedad.
+// before es null en una creación y after es null en una eliminación.
+public record PropertyChangedEvent(FacetKey before, FacetKey after) {
+
+    // Valores de la propiedad que alimentan los conteos de facetas
+    public record FacetKey(String city, String propertyType, String transactionType, Boolean available) {
+
+        public static FacetKey of(Property property) {
+            return new FacetKey(property.getCity(), property.getPropertyType(), property.getTransactionType(),
+                    property.getAvailable());
+        }
+    }
+}
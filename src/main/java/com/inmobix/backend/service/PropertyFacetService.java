@@ -0,0 +1,136 @@
+package com.inmobix.backend.service;
+
+import com.inmobix.backend.dto.PropertyFacetCount;
+import com.inmobix.backend.dto.PropertyFacets;
+import com.inmobix.backend.dto.PropertySearchCriteria;
+import com.inmobix.backend.model.Property;
+import com.inmobix.backend.repository.PropertyRepository;
+import com.inmobix.backend.repository.PropertySpecifications;
+import com.inmobix.backend.service.PropertyChangedEvent.FacetKey;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class PropertyFacetService {
+
+    private final PropertyRepository propertyRepository;
+
+    // Conteo por combinación (ciudad, tipo, transacción, disponible). Se mantiene en memoria con los
+    // eventos de PropertyService y se reemplaza completo en cada reconciliación; null hasta la primera.
+    private volatile ConcurrentMap<FacetKey, LongAdder> counts;
+
+    public PropertyFacetService(PropertyRepository propertyRepository) {
+        this.propertyRepository = propertyRepository;
+    }
+
+    // Sin filtros, o filtrando solo por ciudad/tipo/transacción/disponibilidad, se responde desde memoria;
+    // el resto de filtros (precio, área, habitaciones, ...) se resuelve con un GROUP BY en la base de datos
+    public PropertyFacets getFacets(PropertySearchCriteria criteria) {
+        ConcurrentMap<FacetKey, LongAdder> snapshot = counts;
+        if (snapshot == null || !coveredByMemory(criteria)) {
+            return toFacets(loadCounts(PropertySpecifications.matching(criteria)));
+        }
+
+        Map<FacetKey, Long> matching = new HashMap<>();
+        snapshot.forEach((key, count) -> {
+            if (matches(key, criteria)) {
+                matching.put(key, count.sum());
+            }
+        });
+        return toFacets(matching);
+    }
+
+    // Solo se aplica tras el commit: una transacción revertida no altera los conteos
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPropertyChanged(PropertyChangedEvent event) {
+        ConcurrentMap<FacetKey, LongAdder> current = counts;
+        if (current == null) {
+            return; // la primera reconciliación ya incluirá el cambio
+        }
+        if (event.before() != null) {
+            current.computeIfAbsent(event.before(), key -> new LongAdder()).decrement();
+        }
+        if (event.after() != null) {
+            current.computeIfAbsent(event.after(), key -> new LongAdder()).increment();
+        }
+    }
+
+    // Recalcula los conteos desde la base de datos; corrige cualquier desvío (cambios hechos fuera
+    // de PropertyService, eventos que coincidieron con el reemplazo del mapa, otras instancias)
+    @Scheduled(fixedDelayString = "${app.facets.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        ConcurrentMap<FacetKey, LongAdder> fresh = new ConcurrentHashMap<>();
+        loadCounts(PropertySpecifications.all()).forEach((key, count) -> {
+            LongAdder adder = new LongAdder();
+            adder.add(count);
+            fresh.put(key, adder);
+        });
+        counts = fresh;
+    }
+
+    private Map<FacetKey, Long> loadCounts(Specification<Property> spec) {
+        Map<FacetKey, Long> result = new HashMap<>();
+        for (PropertyFacetCount row : propertyRepository.countFacets(spec)) {
+            FacetKey key = new FacetKey(row.getCity(), row.getPropertyType(), row.getTransactionType(),
+                    row.getAvailable());
+            result.put(key, row.getCount());
+        }
+        return result;
+    }
+
+    private PropertyFacets toFacets(Map<FacetKey, Long> counts) {
+        long total = 0;
+        Map<String, Long> cities = new TreeMap<>();
+        Map<String, Long> propertyTypes = new TreeMap<>();
+        Map<String, Long> transactionTypes = new TreeMap<>();
+
+        for (Map.Entry<FacetKey, Long> entry : counts.entrySet()) {
+            long count = entry.getValue();
+            if (count <= 0) {
+                continue;
+            }
+            FacetKey key = entry.getKey();
+            total += count;
+            cities.merge(key.city(), count, Long::sum);
+            propertyTypes.merge(key.propertyType(), count, Long::sum);
+            transactionTypes.merge(key.transactionType(), count, Long::sum);
+        }
+        return new PropertyFacets(total, cities, propertyTypes, transactionTypes);
+    }
+
+    private boolean coveredByMemory(PropertySearchCriteria criteria) {
+        return !hasText(criteria.getState())
+                && criteria.getMinPrice() == null
+                && criteria.getMaxPrice() == null
+                && criteria.getMinArea() == null
+                && criteria.getMaxArea() == null
+                && criteria.getMinBedrooms() == null
+                && criteria.getMinBathrooms() == null
+                && criteria.getMinGarages() == null
+                && criteria.getUserId() == null
+                && criteria.getCreatedFrom() == null
+                && criteria.getCreatedTo() == null;
+    }
+
+    private boolean matches(FacetKey key, PropertySearchCriteria criteria) {
+        return (!hasText(criteria.getCity()) || criteria.getCity().equals(key.city()))
+                && (!hasText(criteria.getPropertyType()) || criteria.getPropertyType().equals(key.propertyType()))
+                && (!hasText(criteria.getTransactionType())
+                        || criteria.getTransactionType().equals(key.transactionType()))
+                && (criteria.getAvailable() == null || criteria.getAvailable().equals(key.available()));
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
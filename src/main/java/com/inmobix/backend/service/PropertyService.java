@@ -1,31 +1,73 @@
 package com.inmobix.backend.service;
 
+import com.inmobix.backend.config.CacheConfig;
+import com.inmobix.backend.dto.CursorPage;
+import com.inmobix.backend.dto.ExportFormat;
 import com.inmobix.backend.dto.PropertyRequest;
 import com.inmobix.backend.dto.PropertyResponse;
+import com.inmobix.backend.dto.PropertySearchCriteria;
+import com.inmobix.backend.dto.PropertySummary;
+import com.inmobix.backend.exception.BadRequestException;
 import com.inmobix.backend.model.Property;
 import com.inmobix.backend.model.User;
+import com.inmobix.backend.repository.KeysetCursor;
 import com.inmobix.backend.repository.PropertyRepository;
+import com.inmobix.backend.repository.PropertySpecifications;
 import com.inmobix.backend.repository.UserRepository;
-
-import org.apache.commons.io.output.ByteArrayOutputStream;
+import com.inmobix.backend.service.PropertyChangedEvent.FacetKey;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-
-import com.itextpdf.kernel.geom.PageSize;
+import java.util.stream.Stream;
 
 @Service
 public class PropertyService {
 
         private final PropertyRepository propertyRepository;
         private final UserRepository userRepository;
+        private final ApplicationEventPublisher eventPublisher;
+        private final ObjectMapper objectMapper;
+
+        @PersistenceContext
+        private EntityManager entityManager;
+
+        @Value("${app.pagination.default-size:20}")
+        private int defaultPageSize;
+
+        @Value("${app.pagination.max-size:100}")
+        private int maxPageSize;
+
+        @Value("${app.export.fetch-size:500}")
+        private int exportFetchSize;
 
-        public PropertyService(PropertyRepository propertyRepository, UserRepository userRepository) {
+        @Value("${app.reports.excel-window-size:100}")
+        private int excelWindowSize;
+
+        @Value("${app.reports.chunk-size:500}")
+        private int reportChunkSize;
+
+        public PropertyService(PropertyRepository propertyRepository, UserRepository userRepository,
+                        ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper) {
                 this.propertyRepository = propertyRepository;
                 this.userRepository = userRepository;
+                this.eventPublisher = eventPublisher;
+                this.objectMapper = objectMapper;
         }
 
         // Crear una nueva propiedad
@@ -57,30 +99,32 @@ public class PropertyService {
                 }
 
                 Property saved = propertyRepository.save(property);
+                eventPublisher.publishEvent(new PropertyChangedEvent(null, FacetKey.of(saved)));
                 return mapToResponse(saved);
         }
 
+        // El detalle se sirve desde caché; update/delete invalidan la entrada
         @SuppressWarnings("null")
+        @Cacheable(cacheNames = CacheConfig.PROPERTY_DETAILS, key = "#id")
         @Transactional(readOnly = true)
         public PropertyResponse getById(UUID id) {
-                Property property = propertyRepository.findById(id)
+                Property property = propertyRepository.findWithUserById(id)
                                 .orElseThrow(() -> new RuntimeException("Propiedad no encontrada con id " + id));
                 return mapToResponse(property);
         }
 
         @Transactional(readOnly = true)
-        public List<PropertyResponse> getAll() {
-                return propertyRepository.findAll()
-                                .stream()
-                                .map(this::mapToResponse)
-                                .collect(Collectors.toList());
+        public <T> CursorPage<T> getAll(String cursor, Integer size, Class<T> view) {
+                return findPage(PropertySpecifications.all(), cursor, size, view);
         }
 
+        @CacheEvict(cacheNames = CacheConfig.PROPERTY_DETAILS, key = "#id")
         @Transactional
         public PropertyResponse update(UUID id, PropertyRequest request) {
                 @SuppressWarnings("null")
                 Property property = propertyRepository.findById(id)
                                 .orElseThrow(() -> new RuntimeException("Propiedad no encontrada con id " + id));
+                FacetKey before = FacetKey.of(property);
 
                 property.setTitle(request.getTitle());
                 property.setDescription(request.getDescription());
@@ -98,65 +142,200 @@ public class PropertyService {
                 property.setImageUrl(request.getImageUrl());
 
                 Property updated = propertyRepository.save(property);
+                FacetKey after = FacetKey.of(updated);
+                if (!before.equals(after)) {
+                        eventPublisher.publishEvent(new PropertyChangedEvent(before, after));
+                }
                 return mapToResponse(updated);
         }
 
         @SuppressWarnings("null")
+        @CacheEvict(cacheNames = CacheConfig.PROPERTY_DETAILS, key = "#id")
         @Transactional
         public void delete(UUID id) {
-                if (!propertyRepository.existsById(id)) {
-                        throw new RuntimeException("Propiedad no encontrada con id " + id);
-                }
-                propertyRepository.deleteById(id);
+                Property property = propertyRepository.findById(id)
+                                .orElseThrow(() -> new RuntimeException("Propiedad no encontrada con id " + id));
+                propertyRepository.delete(property);
+                eventPublisher.publishEvent(new PropertyChangedEvent(FacetKey.of(property), null));
         }
 
         @Transactional(readOnly = true)
-        public List<PropertyResponse> getAvailableProperties() {
-                return propertyRepository.findByAvailableTrue()
-                                .stream()
-                                .map(this::mapToResponse)
-                                .collect(Collectors.toList());
+        public <T> CursorPage<T> getAvailableProperties(String cursor, Integer size, Class<T> view) {
+                return findPage(PropertySpecifications.isAvailable(), cursor, size, view);
         }
 
         @Transactional(readOnly = true)
-        public List<PropertyResponse> getByCity(String city) {
-                return propertyRepository.findByCity(city)
-                                .stream()
-                                .map(this::mapToResponse)
-                                .collect(Collectors.toList());
+        public <T> CursorPage<T> getByCity(String city, String cursor, Integer size, Class<T> view) {
+                return findPage(PropertySpecifications.hasCity(city), cursor, size, view);
         }
 
         @Transactional(readOnly = true)
-        public List<PropertyResponse> getByPropertyType(String propertyType) {
-                return propertyRepository.findByPropertyType(propertyType)
-                                .stream()
-                                .map(this::mapToResponse)
-                                .collect(Collectors.toList());
+        public <T> CursorPage<T> getByPropertyType(String propertyType, String cursor, Integer size,
+                        Class<T> view) {
+                return findPage(PropertySpecifications.hasPropertyType(propertyType), cursor, size, view);
         }
 
         @Transactional(readOnly = true)
-        public List<PropertyResponse> getByTransactionType(String transactionType) {
-                return propertyRepository.findByTransactionType(transactionType)
-                                .stream()
-                                .map(this::mapToResponse)
-                                .collect(Collectors.toList());
+        public <T> CursorPage<T> getByTransactionType(String transactionType, String cursor, Integer size,
+                        Class<T> view) {
+                return findPage(PropertySpecifications.hasTransactionType(transactionType), cursor, size, view);
         }
 
         @Transactional(readOnly = true)
-        public List<PropertyResponse> getByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-                return propertyRepository.findByPriceBetween(minPrice, maxPrice)
-                                .stream()
-                                .map(this::mapToResponse)
-                                .collect(Collectors.toList());
+        public <T> CursorPage<T> getByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, String cursor,
+                        Integer size, Class<T> view) {
+                return findPage(PropertySpecifications.priceBetween(minPrice, maxPrice), cursor, size, view);
+        }
+
+        // Búsqueda combinada: todos los filtros se resuelven en una sola consulta
+        @Transactional(readOnly = true)
+        public <T> CursorPage<T> search(PropertySearchCriteria criteria, String cursor, Integer size,
+                        Class<T> view) {
+                validateRanges(criteria);
+                return findPage(PropertySpecifications.matching(criteria), cursor, size, view);
+        }
+
+        // Exportación del catálogo en streaming: cada fila se lee del cursor, se escribe en la salida
+        // y se separa del contexto de persistencia, así la memoria no crece con el tamaño del catálogo
+        @Transactional(readOnly = true)
+        public void exportCatalogue(PropertySearchCriteria criteria, ExportFormat format, OutputStream out)
+                        throws IOException {
+                validateRanges(criteria);
+                Specification<Property> spec = PropertySpecifications.matching(criteria)
+                                .and(PropertySpecifications.fetchOwner());
+
+                try (Stream<Property> rows = propertyRepository.streamAll(spec, PropertySpecifications.NEWEST_FIRST,
+                                exportFetchSize);
+                                JsonGenerator generator = objectMapper.createGenerator(out)) {
+                        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                        if (format == ExportFormat.JSON) {
+                                generator.writeStartArray();
+                        }
+
+                        for (Property property : (Iterable<Property>) rows::iterator) {
+                                generator.writeObject(mapToResponse(property));
+                                if (format == ExportFormat.NDJSON) {
+                                        generator.writeRaw('\n');
+                                }
+                                detach(property);
+                        }
+
+                        if (format == ExportFormat.JSON) {
+                                generator.writeEndArray();
+                        }
+                }
+        }
+
+        private void detach(Property property) {
+                entityManager.detach(property);
+                if (property.getUser() != null) {
+                        entityManager.detach(property.getUser());
+                }
+        }
+
+        // Público para validar los filtros antes de empezar una descarga en streaming o encolar un reporte
+        public void validateRanges(PropertySearchCriteria criteria) {
+                if (criteria.getMinPrice() != null && criteria.getMaxPrice() != null
+                                && criteria.getMinPrice().compareTo(criteria.getMaxPrice()) > 0) {
+                        throw new BadRequestException("El precio mínimo no puede ser mayor al precio máximo");
+                }
+                if (criteria.getMinArea() != null && criteria.getMaxArea() != null
+                                && criteria.getMinArea().compareTo(criteria.getMaxArea()) > 0) {
+                        throw new BadRequestException("El área mínima no puede ser mayor al área máxima");
+                }
+                if (criteria.getCreatedFrom() != null && criteria.getCreatedTo() != null
+                                && criteria.getCreatedFrom().isAfter(criteria.getCreatedTo())) {
+                        throw new BadRequestException("La fecha inicial no puede ser posterior a la fecha final");
+                }
+        }
+
+        // Filas para reportes: páginas de reportChunkSize por keyset (NEWEST_FIRST) con el propietario
+        // incluido; entre páginas se limpia el contexto de persistencia, así la memoria del render no
+        // depende del total de filas. Debe recorrerse dentro de una transacción.
+        public Iterable<Property> reportRows(Specification<Property> spec) {
+                Specification<Property> base = spec.and(PropertySpecifications.fetchOwner());
+                return new KeysetChunks<Property>(reportChunkSize, last -> propertyRepository.findBy(
+                                last == null ? base
+                                                : base.and(PropertySpecifications.after(new KeysetCursor(
+                                                                last.getCreatedAt().toString(), last.getId()))),
+                                query -> query.sortBy(PropertySpecifications.NEWEST_FIRST)
+                                                .limit(reportChunkSize)
+                                                .all()),
+                                entityManager::clear);
         }
 
         // Buscar propiedades de un usuario usando UUID
         @Transactional(readOnly = true)
-        public List<PropertyResponse> getByUserId(UUID userId) {
-                return propertyRepository.findByUserId(userId)
-                                .stream()
-                                .map(this::mapToResponse)
+        public <T> CursorPage<T> getByUserId(UUID userId, String cursor, Integer size, Class<T> view) {
+                return findPage(PropertySpecifications.ownedBy(userId), cursor, size, view);
+        }
+
+        // La vista se elige como en las proyecciones dinámicas de Spring Data:
+        // PropertyResponse (detalle completo) o PropertySummary (solo columnas de tarjeta)
+        @SuppressWarnings("unchecked")
+        private <T> CursorPage<T> findPage(Specification<Property> spec, String cursor, Integer size, Class<T> view) {
+                if (view == PropertySummary.class) {
+                        return (CursorPage<T>) findSummaryPage(spec, cursor, size);
+                }
+                if (view == PropertyResponse.class) {
+                        return (CursorPage<T>) findResponsePage(spec, cursor, size);
+                }
+                throw new IllegalArgumentException("Vista de listado no soportada: " + view.getSimpleName());
+        }
+
+        // Paginación por keyset (createdAt, id): se pide una fila extra para saber si hay más
+        private CursorPage<PropertyResponse> findResponsePage(Specification<Property> spec, String cursor,
+                        Integer size) {
+                int pageSize = resolvePageSize(size);
+                Specification<Property> pageSpec = afterCursor(spec, cursor).and(PropertySpecifications.fetchOwner());
+
+                List<Property> rows = propertyRepository.findBy(pageSpec, query -> query
+                                .sortBy(PropertySpecifications.NEWEST_FIRST)
+                                .limit(pageSize + 1)
+                                .all());
+
+                return toPage(rows, pageSize, this::mapToResponse,
+                                last -> new KeysetCursor(last.getCreatedAt().toString(), last.getId()));
+        }
+
+        private CursorPage<PropertySummary> findSummaryPage(Specification<Property> spec, String cursor,
+                        Integer size) {
+                int pageSize = resolvePageSize(size);
+                List<PropertySummary> rows = propertyRepository.findSummaries(afterCursor(spec, cursor),
+                                PropertySpecifications.NEWEST_FIRST, pageSize + 1);
+
+                return toPage(rows, pageSize, Function.identity(),
+                                last -> new KeysetCursor(last.getCreatedAt().toString(), last.getId()));
+        }
+
+        private Specification<Property> afterCursor(Specification<Property> spec, String cursor) {
+                if (cursor == null || cursor.isBlank()) {
+                        return spec;
+                }
+                return spec.and(PropertySpecifications.after(KeysetCursor.decode(cursor)));
+        }
+
+        private <R, T> CursorPage<T> toPage(List<R> rows, int pageSize, Function<R, T> mapper,
+                        Function<R, KeysetCursor> cursorOf) {
+                boolean hasNext = rows.size() > pageSize;
+                List<R> pageRows = hasNext ? rows.subList(0, pageSize) : rows;
+
+                String nextCursor = hasNext ? cursorOf.apply(pageRows.get(pageRows.size() - 1)).encode() : null;
+
+                List<T> content = pageRows.stream()
+                                .map(mapper)
                                 .collect(Collectors.toList());
+                return new CursorPage<>(content, nextCursor, hasNext, content.size());
+        }
+
+        private int resolvePageSize(Integer size) {
+                if (size == null) {
+                        return defaultPageSize;
+                }
+                if (size < 1) {
+                        throw new BadRequestException("El tamaño de página debe ser mayor a 0");
+                }
+                return Math.min(size, maxPageSize);
         }
 
         private PropertyResponse mapToResponse(Property property) {
@@ -191,494 +370,73 @@ public class PropertyService {
 
         // ==================== MÉTODOS DE GENERACIÓN DE REPORTES ====================
 
+        // El PdfWriter escribe directo en la salida: cada página se vacía al completarse
+        // (immediateFlush) y el cliente recibe bytes desde la primera página
+        // Los filtros se aplican en la consulta: solo se leen y dibujan las filas pedidas
         @Transactional(readOnly = true)
-        public byte[] generatePdfReport() {
-                List<Property> properties = propertyRepository.findAll();
-
-                try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                        com.itextpdf.kernel.pdf.PdfWriter writer = new com.itextpdf.kernel.pdf.PdfWriter(baos);
-                        com.itextpdf.kernel.pdf.PdfDocument pdf = new com.itextpdf.kernel.pdf.PdfDocument(writer);
-                        com.itextpdf.layout.Document document = new com.itextpdf.layout.Document(pdf, PageSize.A4);
-                        document.setMargins(36, 36, 36, 36);
-
-                        // Título principal
-                        com.itextpdf.layout.element.Paragraph title = new com.itextpdf.layout.element.Paragraph(
-                                        "Reporte de Propiedades - Inmobix")
-                                        .setFontSize(24)
-                                        .setBold()
-                                        .setFontColor(new com.itextpdf.kernel.colors.DeviceRgb(46, 134, 193))
-                                        .setTextAlignment(com.itextpdf.layout.properties.TextAlignment.CENTER);
-                        document.add(title);
-
-                        // Fecha
-                        String dateStr = java.time.LocalDateTime.now().format(
-                                        java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"));
-                        com.itextpdf.layout.element.Paragraph date = new com.itextpdf.layout.element.Paragraph(
-                                        "Generado el: " + dateStr)
-                                        .setFontSize(10)
-                                        .setItalic()
-                                        .setTextAlignment(com.itextpdf.layout.properties.TextAlignment.CENTER)
-                                        .setMarginBottom(20);
-                        document.add(date);
-
-                        // Resumen
-                        com.itextpdf.layout.element.Paragraph summary = new com.itextpdf.layout.element.Paragraph(
-                                        "Total de propiedades registradas: " + properties.size())
-                                        .setFontSize(12)
-                                        .setBold()
-                                        .setMarginBottom(20);
-                        document.add(summary);
-
-                        // Crear una tabla separada para cada propiedad
-                        for (int i = 0; i < properties.size(); i++) {
-                                Property property = properties.get(i);
-
-                                // Título de la propiedad
-                                com.itextpdf.layout.element.Paragraph propertyTitle = new com.itextpdf.layout.element.Paragraph(
-                                                "Propiedad #" + (i + 1))
-                                                .setFontSize(14)
-                                                .setBold()
-                                                .setFontColor(new com.itextpdf.kernel.colors.DeviceRgb(46, 134, 193))
-                                                .setMarginTop(15)
-                                                .setMarginBottom(10);
-                                document.add(propertyTitle);
-
-                                float[] columnWidths = { 100f, 420f };
-                                com.itextpdf.layout.element.Table table = new com.itextpdf.layout.element.Table(
-                                                com.itextpdf.layout.properties.UnitValue.createPointArray(columnWidths));
-                                table.setWidth(com.itextpdf.layout.properties.UnitValue.createPercentValue(100));
-                                table.setFixedLayout();
-
-                                // Agregar filas de información
-                                addPdfPropertyRow(table, "Título", property.getTitle());
-
-                                String description = property.getDescription() != null
-                                                && !property.getDescription().isEmpty()
-                                                                ? property.getDescription()
-                                                                : "N/A";
-                                addPdfPropertyRow(table, "Descripción", description);
-
-                                addPdfPropertyRow(table, "Tipo", property.getPropertyType());
-                                addPdfPropertyRow(table, "Precio", "$" + String.format("%,.2f", property.getPrice()));
-
-                                String area = property.getArea() != null ? property.getArea() + " m²" : "N/A";
-                                addPdfPropertyRow(table, "Área", area);
-
-                                String address = property.getAddress() != null && !property.getAddress().isEmpty()
-                                                ? property.getAddress()
-                                                : "N/A";
-                                addPdfPropertyRow(table, "Dirección", address);
-
-                                addPdfPropertyRow(table, "Ciudad", property.getCity());
-
-                                String state = property.getState() != null && !property.getState().isEmpty()
-                                                ? property.getState()
-                                                : "N/A";
-                                addPdfPropertyRow(table, "Departamento", state);
-
-                                addPdfPropertyRow(table, "Habitaciones", property.getBedrooms().toString());
-                                addPdfPropertyRow(table, "Baños", property.getBathrooms().toString());
-                                addPdfPropertyRow(table, "Garajes", property.getGarages().toString());
-
-                                // Tipo de Propiedad
-                                String propertyType = property.getPropertyType();
-                                String propertyTypeLabel = switch (propertyType) {
-                                        case "HOUSE" -> "Casa";
-                                        case "APARTMENT" -> "Apartamento";
-                                        case "LAND" -> "Terreno";
-                                        case "COMMERCIAL" -> "Comercial";
-                                        default -> propertyType;
-                                };
-                                addPdfPropertyRow(table, "Tipo de Propiedad", propertyTypeLabel);
-
-                                // Tipo de Transacción
-                                String transactionType = property.getTransactionType();
-                                String transactionLabel = transactionType.equals("SALE") ? "Venta" : "Alquiler";
-                                addPdfPropertyRow(table, "Tipo de Transacción", transactionLabel);
-
-                                addPdfPropertyRow(table, "Disponible", property.getAvailable() ? "Sí" : "No");
-
-                                // Fecha de Creación
-                                if (property.getCreatedAt() != null) {
-                                        String createdAt = property.getCreatedAt().format(
-                                                        java.time.format.DateTimeFormatter
-                                                                        .ofPattern("dd/MM/yyyy HH:mm"));
-                                        addPdfPropertyRow(table, "Fecha de Creación", createdAt);
-                                }
-
-                                document.add(table);
+        public void writePdfReport(PropertySearchCriteria criteria, OutputStream out) {
+                validateRanges(criteria);
+                Specification<Property> spec = PropertySpecifications.matching(criteria);
+                // El total sale de un conteo: las filas se leen por páginas mientras se escribe el reporte
+                long total = propertyRepository.count(spec);
+                String filters = ReportTemplates.filters(criteria);
+
+                try {
+                        PdfReport report = PdfReport.open(out);
+                        report.title("Reporte de Propiedades - Inmobix");
+                        report.generatedAt(20);
+                        if (filters != null) {
+                                report.note(filters, 10);
                         }
+                        report.summary(totalLabel(filters) + total, 20);
 
-                        // Footer
-                        com.itextpdf.layout.element.Paragraph footer = new com.itextpdf.layout.element.Paragraph(
-                                        "Inmobix - Sistema de Gestión Inmobiliaria")
-                                        .setFontSize(8)
-                                        .setItalic()
-                                        .setTextAlignment(com.itextpdf.layout.properties.TextAlignment.CENTER)
-                                        .setMarginTop(20);
-                        document.add(footer);
+                        int i = 0;
+                        for (Property property : reportRows(spec)) {
+                                report.item("Propiedad #" + (++i), ReportTemplates.PROPERTY_PDF, property);
+                        }
 
-                        document.close();
-                        return baos.toByteArray();
+                        report.footer(20);
+                        report.close();
 
                 } catch (Exception e) {
                         throw new RuntimeException("Error al generar reporte PDF: " + e.getMessage(), e);
                 }
         }
 
-        private void addPdfPropertyRow(com.itextpdf.layout.element.Table table, String field, String value) {
-                // Celda de campo (encabezado)
-                com.itextpdf.layout.element.Cell fieldCell = new com.itextpdf.layout.element.Cell()
-                                .add(new com.itextpdf.layout.element.Paragraph(field).setBold().setFontSize(9))
-                                .setBackgroundColor(new com.itextpdf.kernel.colors.DeviceRgb(240, 248, 255))
-                                .setPadding(5);
-                table.addCell(fieldCell);
-
-                // Celda de valor - con word wrap habilitado
-                com.itextpdf.layout.element.Paragraph valueParagraph = new com.itextpdf.layout.element.Paragraph(value)
-                                .setFontSize(9);
-                
-                com.itextpdf.layout.element.Cell valueCell = new com.itextpdf.layout.element.Cell()
-                                .add(valueParagraph)
-                                .setPadding(5);
-                table.addCell(valueCell);
-        }
-
+        // Libro en streaming (SXSSF): solo las últimas excelWindowSize filas quedan en memoria, el resto se
+        // vuelca a un temporal comprimido; el archivo final se escribe directo en la salida
         @Transactional(readOnly = true)
-        public byte[] generateExcelReport() {
-                List<Property> properties = propertyRepository.findAll();
-
-                try (org.apache.poi.xssf.usermodel.XSSFWorkbook workbook = new org.apache.poi.xssf.usermodel.XSSFWorkbook();
-                                ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-
-                        org.apache.poi.ss.usermodel.Sheet sheet = workbook.createSheet("Propiedades");
-
-                        // Estilos
-                        org.apache.poi.ss.usermodel.CellStyle titleStyle = workbook.createCellStyle();
-                        org.apache.poi.ss.usermodel.Font titleFont = workbook.createFont();
-                        titleFont.setBold(true);
-                        titleFont.setFontHeightInPoints((short) 16);
-                        titleFont.setColor(org.apache.poi.ss.usermodel.IndexedColors.WHITE.getIndex());
-                        titleStyle.setFont(titleFont);
-                        titleStyle.setFillForegroundColor(
-                                        org.apache.poi.ss.usermodel.IndexedColors.DARK_BLUE.getIndex());
-                        titleStyle.setFillPattern(org.apache.poi.ss.usermodel.FillPatternType.SOLID_FOREGROUND);
-                        titleStyle.setAlignment(org.apache.poi.ss.usermodel.HorizontalAlignment.CENTER);
-                        titleStyle.setVerticalAlignment(org.apache.poi.ss.usermodel.VerticalAlignment.CENTER);
-
-                        // Estilo para títulos de propiedad
-                        org.apache.poi.ss.usermodel.CellStyle propertyTitleStyle = workbook.createCellStyle();
-                        org.apache.poi.ss.usermodel.Font propertyTitleFont = workbook.createFont();
-                        propertyTitleFont.setBold(true);
-                        propertyTitleFont.setFontHeightInPoints((short) 12);
-                        propertyTitleFont.setColor(org.apache.poi.ss.usermodel.IndexedColors.WHITE.getIndex());
-                        propertyTitleStyle.setFont(propertyTitleFont);
-                        propertyTitleStyle.setFillForegroundColor(
-                                        org.apache.poi.ss.usermodel.IndexedColors.LIGHT_BLUE.getIndex());
-                        propertyTitleStyle.setFillPattern(org.apache.poi.ss.usermodel.FillPatternType.SOLID_FOREGROUND);
-                        propertyTitleStyle.setAlignment(org.apache.poi.ss.usermodel.HorizontalAlignment.CENTER);
-
-                        org.apache.poi.ss.usermodel.CellStyle fieldStyle = workbook.createCellStyle();
-                        org.apache.poi.ss.usermodel.Font fieldFont = workbook.createFont();
-                        fieldFont.setBold(true);
-                        fieldStyle.setFont(fieldFont);
-                        fieldStyle.setFillForegroundColor(
-                                        org.apache.poi.ss.usermodel.IndexedColors.GREY_25_PERCENT.getIndex());
-                        fieldStyle.setWrapText(true);
-                        fieldStyle.setVerticalAlignment(org.apache.poi.ss.usermodel.VerticalAlignment.TOP);
-                        fieldStyle.setFillPattern(org.apache.poi.ss.usermodel.FillPatternType.SOLID_FOREGROUND);
-                        fieldStyle.setBorderBottom(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-                        fieldStyle.setBorderTop(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-                        fieldStyle.setBorderLeft(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-                        fieldStyle.setBorderRight(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-                        fieldStyle.setWrapText(true);
-                        fieldStyle.setVerticalAlignment(org.apache.poi.ss.usermodel.VerticalAlignment.TOP);
-
-                        org.apache.poi.ss.usermodel.CellStyle valueStyle = workbook.createCellStyle();
-                        valueStyle.setBorderBottom(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-                        valueStyle.setBorderTop(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-                        valueStyle.setBorderLeft(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-                        valueStyle.setBorderRight(org.apache.poi.ss.usermodel.BorderStyle.THIN);
-                        valueStyle.setWrapText(true);
-                        valueStyle.setVerticalAlignment(org.apache.poi.ss.usermodel.VerticalAlignment.TOP);
-
-                        // Título principal
-                        org.apache.poi.ss.usermodel.Row titleRow = sheet.createRow(0);
-                        titleRow.setHeight((short) 600);
-                        org.apache.poi.ss.usermodel.Cell titleCell = titleRow.createCell(0);
-                        titleCell.setCellValue("Reporte de Propiedades - Inmobix");
-                        titleCell.setCellStyle(titleStyle);
-                        sheet.addMergedRegion(new org.apache.poi.ss.util.CellRangeAddress(0, 0, 0, 1));
-
-                        // Fecha
-                        org.apache.poi.ss.usermodel.Row dateRow = sheet.createRow(1);
-                        org.apache.poi.ss.usermodel.Cell dateCell = dateRow.createCell(0);
-                        dateCell.setCellValue("Generado el: " + java.time.LocalDateTime.now().format(
-                                        java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss")));
-                        sheet.addMergedRegion(new org.apache.poi.ss.util.CellRangeAddress(1, 1, 0, 1));
-
-                        // Resumen
-                        org.apache.poi.ss.usermodel.Row summaryRow = sheet.createRow(2);
-                        summaryRow.setHeight((short) 400);
-                        org.apache.poi.ss.usermodel.Cell summaryCell = summaryRow.createCell(0);
-                        summaryCell.setCellValue("Total de propiedades registradas: " + properties.size());
-                        org.apache.poi.ss.usermodel.CellStyle summaryStyle = workbook.createCellStyle();
-                        org.apache.poi.ss.usermodel.Font summaryFont = workbook.createFont();
-                        summaryFont.setBold(true);
-                        summaryStyle.setFont(summaryFont);
-                        summaryCell.setCellStyle(summaryStyle);
-                        sheet.addMergedRegion(new org.apache.poi.ss.util.CellRangeAddress(2, 2, 0, 1));
-
-                        int currentRow = 4;
-
-                        // Crear sección para cada propiedad
-                        for (int i = 0; i < properties.size(); i++) {
-                                Property property = properties.get(i);
-
-                                // Título de la propiedad
-                                org.apache.poi.ss.usermodel.Row propTitleRow = sheet.createRow(currentRow);
-                                propTitleRow.setHeight((short) 400);
-                                org.apache.poi.ss.usermodel.Cell propTitleCell = propTitleRow.createCell(0);
-                                propTitleCell.setCellValue("Propiedad #" + (i + 1));
-                                propTitleCell.setCellStyle(propertyTitleStyle);
-                                sheet.addMergedRegion(new org.apache.poi.ss.util.CellRangeAddress(currentRow,
-                                                currentRow, 0, 1));
-                                currentRow++;
-
-                                // Agregar campos de la propiedad
-                                currentRow = addExcelPropertyRow(sheet, currentRow, "Título", property.getTitle(),
-                                                fieldStyle,
-                                                valueStyle);
-
-                                String description = property.getDescription() != null
-                                                && !property.getDescription().isEmpty()
-                                                                ? property.getDescription()
-                                                                : "N/A";
-                                currentRow = addExcelPropertyRow(sheet, currentRow, "Descripción", description,
-                                                fieldStyle, valueStyle);
-
-                                currentRow = addExcelPropertyRow(sheet, currentRow, "Tipo", property.getPropertyType(),
-                                                fieldStyle,
-                                                valueStyle);
-                                currentRow = addExcelPropertyRow(sheet, currentRow, "Precio",
-                                                "$" + String.format("%,.2f", property.getPrice()), fieldStyle,
-                                                valueStyle);
-
-                                String area = property.getArea() != null ? property.getArea() + " m²" : "N/A";
-                                currentRow = addExcelPropertyRow(sheet, currentRow, "Área", area, fieldStyle,
-                                                valueStyle);
-
-                                String address = property.getAddress() != null && !property.getAddress().isEmpty()
-                                                ? property.getAddress()
-                                                : "N/A";
-                                currentRow = addExcelPropertyRow(sheet, currentRow, "Dirección", address, fieldStyle,
-                                                valueStyle);
-
-                                currentRow = addExcelPropertyRow(sheet, currentRow, "Ciudad", property.getCity(),
-                                                fieldStyle,
-                                                valueStyle);
-
-                                String state = property.getState() != null && !property.getState().isEmpty()
-                                                ? property.getState()
-                                                : "N/A";
-                                currentRow = addExcelPropertyRow(sheet, currentRow, "Departamento", state, fieldStyle,
-                                                valueStyle);
-
-                                currentRow = addExcelPropertyRow(sheet, currentRow, "Habitaciones",
-                                                property.getBedrooms().toString(), fieldStyle, valueStyle);
-
-                                currentRow = addExcelPropertyRow(sheet, currentRow, "Baños",
-                                                property.getBathrooms().toString(), fieldStyle, valueStyle);
-
-                                currentRow = addExcelPropertyRow(sheet, currentRow, "Garajes",
-                                                property.getGarages().toString(), fieldStyle, valueStyle);
-
-                                // Tipo de Propiedad
-                                String propertyType = property.getPropertyType();
-                                String propertyTypeLabel = switch (propertyType) {
-                                        case "HOUSE" -> "Casa";
-                                        case "APARTMENT" -> "Apartamento";
-                                        case "LAND" -> "Terreno";
-                                        case "COMMERCIAL" -> "Comercial";
-                                        default -> propertyType;
-                                };
-                                currentRow = addExcelPropertyRow(sheet, currentRow, "Tipo de Propiedad",
-                                                propertyTypeLabel, fieldStyle,
-                                                valueStyle);
-
-                                // Tipo de Transacción
-                                String transactionType = property.getTransactionType();
-                                String transactionLabel = transactionType.equals("SALE") ? "Venta" : "Alquiler";
-                                currentRow = addExcelPropertyRow(sheet, currentRow, "Tipo de Transacción",
-                                                transactionLabel, fieldStyle,
-                                                valueStyle);
-
-                                currentRow = addExcelPropertyRow(sheet, currentRow, "Disponible",
-                                                property.getAvailable() ? "Sí" : "No", fieldStyle, valueStyle);
-
-                                // Información del Propietario
-                                if (property.getUser() != null) {
-                                        currentRow = addExcelPropertyRow(sheet, currentRow, "Propietario",
-                                                        property.getUser().getName(), fieldStyle, valueStyle);
-
-                                        String email = property.getUser().getEmail() != null
-                                                        ? property.getUser().getEmail()
-                                                        : "N/A";
-                                        currentRow = addExcelPropertyRow(sheet, currentRow, "Email Propietario", email,
-                                                        fieldStyle,
-                                                        valueStyle);
-
-                                        String phone = property.getUser().getPhone() != null
-                                                        ? property.getUser().getPhone()
-                                                        : "N/A";
-                                        currentRow = addExcelPropertyRow(sheet, currentRow, "Teléfono Propietario",
-                                                        phone, fieldStyle,
-                                                        valueStyle);
-                                } else {
-                                        currentRow = addExcelPropertyRow(sheet, currentRow, "Propietario", "N/A",
-                                                        fieldStyle, valueStyle);
-                                }
-
-                                // Fecha de Creación
-                                if (property.getCreatedAt() != null) {
-                                        String createdAt = property.getCreatedAt().format(
-                                                        java.time.format.DateTimeFormatter
-                                                                        .ofPattern("dd/MM/yyyy HH:mm"));
-                                        currentRow = addExcelPropertyRow(sheet, currentRow, "Fecha de Creación",
-                                                        createdAt, fieldStyle,
-                                                        valueStyle);
-                                }
+        public void writeExcelReport(PropertySearchCriteria criteria, OutputStream out) {
+                validateRanges(criteria);
+                Specification<Property> spec = PropertySpecifications.matching(criteria);
+                long total = propertyRepository.count(spec);
+                String filters = ReportTemplates.filters(criteria);
+
+                // Columnas: campo y valor (más ancha para textos largos)
+                try (ExcelReport report = new ExcelReport(excelWindowSize, "Propiedades", 6000, 15000)) {
+                        report.title("Reporte de Propiedades - Inmobix", 1);
+                        report.generatedAt(1);
+                        if (filters != null) {
+                                report.text(filters, 1);
+                        }
+                        report.summary(totalLabel(filters) + total, 1);
+                        report.skip(1);
 
+                        int i = 0;
+                        for (Property property : reportRows(spec)) {
+                                report.item("Propiedad #" + (++i), ReportTemplates.PROPERTY_EXCEL, property);
                                 // Espacio entre propiedades
-                                currentRow += 2;
+                                report.skip(2);
                         }
 
-                        // Ajustar anchos de columnas
-                        sheet.setColumnWidth(0, 6000); // Campo
-                        sheet.setColumnWidth(1, 15000); // Valor - más ancho para textos largos
-
-                        workbook.write(baos);
-                        return baos.toByteArray();
+                        report.write(out);
 
                 } catch (Exception e) {
                         throw new RuntimeException("Error al generar reporte Excel: " + e.getMessage(), e);
                 }
         }
 
-        private int addExcelPropertyRow(org.apache.poi.ss.usermodel.Sheet sheet, int rowNum,
-                        String field, String value,
-                        org.apache.poi.ss.usermodel.CellStyle fieldStyle,
-                        org.apache.poi.ss.usermodel.CellStyle valueStyle) {
-                org.apache.poi.ss.usermodel.Row row = sheet.createRow(rowNum);
-
-                // Celda de campo
-                org.apache.poi.ss.usermodel.Cell fieldCell = row.createCell(0);
-                fieldCell.setCellValue(field);
-                fieldCell.setCellStyle(fieldStyle);
-
-                // Celda de valor
-                org.apache.poi.ss.usermodel.Cell valueCell = row.createCell(1);
-                valueCell.setCellValue(value);
-                valueCell.setCellStyle(valueStyle);
-
-                // Aproximadamente 50 caracteres por línea con el ancho de columna actual
-                int charsPerLine = 50;
-                int numLines = (int) Math.ceil((double) value.length() / charsPerLine);
-                if (numLines > 1) {
-                        // Altura por defecto es ~300, multiplicar por número de líneas
-                        row.setHeightInPoints(Math.max(15f, numLines * 15f));
-                }
-
-                return rowNum + 1;
-        }
-
-        // Método público para renderizar propiedades en formato clave-valor en un
-        // documento PDF existente
-        public void renderPropertiesInPdf(com.itextpdf.layout.Document document, List<Property> properties) {
-                if (properties == null || properties.isEmpty()) {
-                        com.itextpdf.layout.element.Paragraph noProp = new com.itextpdf.layout.element.Paragraph(
-                                        "No hay propiedades registradas.")
-                                        .setFontSize(11)
-                                        .setItalic();
-                        document.add(noProp);
-                        return;
-                }
-
-                // Crear una tabla separada para cada propiedad
-                for (int i = 0; i < properties.size(); i++) {
-                        Property property = properties.get(i);
-
-                        // Título de la propiedad
-                        com.itextpdf.layout.element.Paragraph propertyTitle = new com.itextpdf.layout.element.Paragraph(
-                                        "Propiedad #" + (i + 1))
-                                        .setFontSize(12)
-                                        .setBold()
-                                        .setFontColor(new com.itextpdf.kernel.colors.DeviceRgb(46, 134, 193))
-                                        .setMarginTop(15)
-                                        .setMarginBottom(10);
-                        document.add(propertyTitle);
-
-                        // Tabla de 2 columnas: Campo | Valor
-                        float[] columnWidths = { 2f, 3f };
-                        com.itextpdf.layout.element.Table table = new com.itextpdf.layout.element.Table(
-                                        com.itextpdf.layout.properties.UnitValue.createPercentArray(columnWidths))
-                                        .useAllAvailableWidth();
-
-                        // Agregar filas de información
-                        addPdfPropertyRow(table, "Título", property.getTitle());
-
-                        String description = property.getDescription() != null && !property.getDescription().isEmpty()
-                                        ? property.getDescription()
-                                        : "N/A";
-                        addPdfPropertyRow(table, "Descripción", description);
-
-                        String address = property.getAddress() != null && !property.getAddress().isEmpty()
-                                        ? property.getAddress()
-                                        : "N/A";
-                        addPdfPropertyRow(table, "Dirección", address);
-
-                        addPdfPropertyRow(table, "Ciudad", property.getCity());
-
-                        String state = property.getState() != null && !property.getState().isEmpty()
-                                        ? property.getState()
-                                        : "N/A";
-                        addPdfPropertyRow(table, "Departamento", state);
-
-                        addPdfPropertyRow(table, "Precio", "$" + String.format("%,.0f", property.getPrice()));
-
-                        String area = property.getArea() != null ? property.getArea() + " m²" : "N/A";
-                        addPdfPropertyRow(table, "Área", area);
-
-                        addPdfPropertyRow(table, "Habitaciones", property.getBedrooms().toString());
-                        addPdfPropertyRow(table, "Baños", property.getBathrooms().toString());
-                        addPdfPropertyRow(table, "Garajes", property.getGarages().toString());
-
-                        // Tipo de Propiedad
-                        String propertyType = property.getPropertyType();
-                        String propertyTypeLabel = switch (propertyType) {
-                                case "HOUSE" -> "Casa";
-                                case "APARTMENT" -> "Apartamento";
-                                case "LAND" -> "Terreno";
-                                case "COMMERCIAL" -> "Comercial";
-                                default -> propertyType;
-                        };
-                        addPdfPropertyRow(table, "Tipo de Propiedad", propertyTypeLabel);
-
-                        // Tipo de Transacción
-                        String transactionType = property.getTransactionType();
-                        String transactionLabel = transactionType.equals("SALE") ? "Venta" : "Alquiler";
-                        addPdfPropertyRow(table, "Tipo de Transacción", transactionLabel);
-
-                        addPdfPropertyRow(table, "Disponible", property.getAvailable() ? "Sí" : "No");
-
-                        // Fecha de Creación
-                        if (property.getCreatedAt() != null) {
-                                String createdAt = property.getCreatedAt().format(
-                                                java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"));
-                                addPdfPropertyRow(table, "Fecha de Creación", createdAt);
-                        }
-
-                        document.add(table);
-                }
+        private static String totalLabel(String filters) {
+                return filters == null ? "Total de propiedades registradas: " : "Total de propiedades encontradas: ";
         }
 }
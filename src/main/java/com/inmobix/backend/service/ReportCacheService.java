@@ -0,0 +1,297 @@
+package com.inmobix.backend.service;
+
+import com.inmobix.backend.dto.DataVersion;
+import com.inmobix.backend.dto.PropertySearchCriteria;
+import com.inmobix.backend.model.ReportType;
+import com.inmobix.backend.repository.PropertyRepository;
+import com.inmobix.backend.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Caché en disco de los reportes generados. Cada archivo se nombra con el tipo de reporte (y el usuario)
+// más la versión de los datos que contiene (conteo y última modificación de las tablas involucradas):
+// mientras los datos no cambien, una descarga es una copia del archivo en lugar de volver a generarlo.
+// Los reportes de propiedades filtrados llevan además un hash de los filtros: cada combinación es un archivo,
+// y como las combinaciones no tienen límite se conservan solo las maxFilteredEntries usadas más recientemente.
+@Service
+public class ReportCacheService {
+
+    // Marca de los reportes de propiedades filtrados en el nombre del archivo: TIPO-f<hash>-<versión>
+    private static final String FILTERED_MARK = "-f";
+
+    private final PropertyService propertyService;
+    private final UserService userService;
+    private final PropertyRepository propertyRepository;
+    private final UserRepository userRepository;
+    private final ReportMetrics reportMetrics;
+
+    @Value("${app.reports.cache.dir:${java.io.tmpdir}/inmobix-report-cache}")
+    private String directoryPath;
+
+    @Value("${app.reports.cache.max-idle-hours:24}")
+    private long maxIdleHours;
+
+    @Value("${app.reports.cache.max-filtered-entries:200}")
+    private int maxFilteredEntries;
+
+    private Path directory;
+
+    public ReportCacheService(PropertyService propertyService, UserService userService,
+            PropertyRepository propertyRepository, UserRepository userRepository, ReportMetrics reportMetrics) {
+        this.propertyService = propertyService;
+        this.userService = userService;
+        this.propertyRepository = propertyRepository;
+        this.userRepository = userRepository;
+        this.reportMetrics = reportMetrics;
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        directory = Paths.get(directoryPath);
+        Files.createDirectories(directory);
+        // Renders que quedaron a medias en una ejecución anterior
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, "*.tmp")) {
+            leftovers.forEach(this::deleteQuietly);
+        }
+    }
+
+    // Escribe el reporte en out. Si hay un archivo para la versión actual de los datos se copia tal cual;
+    // si no, se genera enviándolo a out y al disco a la vez, y al terminar reemplaza a la versión anterior.
+    public void write(ReportType type, UUID userId, OutputStream out) throws IOException {
+        write(type, userId, null, out);
+    }
+
+    // filters solo aplica a PROPERTIES_PDF y PROPERTIES_EXCEL; null equivale a sin filtros
+    public void write(ReportType type, UUID userId, PropertySearchCriteria filters, OutputStream out)
+            throws IOException {
+        PropertySearchCriteria criteria = filters != null ? filters : new PropertySearchCriteria();
+        // La versión se lee antes de generar: si los datos cambian durante el render, el archivo queda
+        // con una versión vieja y la siguiente descarga lo regenera, nunca al revés
+        String prefix = prefix(type, userId, criteria);
+        Path cached = directory.resolve(prefix + version(type, userId) + "." + type.getExtension());
+
+        long start = System.nanoTime();
+        if (copyIfPresent(cached, out)) {
+            reportMetrics.record(type, "cache", start, sizeOf(cached), true);
+            return;
+        }
+
+        Path temp = Files.createTempFile(directory, prefix, ".tmp");
+        boolean success = false;
+        try {
+            try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                writerFor(type, userId, criteria).writeTo(new TeeOutputStream(out, file));
+            }
+            Files.move(temp, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            success = true;
+        } finally {
+            deleteQuietly(temp); // no existe si el move tuvo éxito
+            reportMetrics.record(type, "render", start, success ? sizeOf(cached) : 0, success);
+        }
+        evictOtherVersions(prefix, cached, type);
+        if (isFiltered(prefix)) {
+            evictLeastRecentlyUsedFiltered();
+        }
+    }
+
+    // Solo para métricas: otro render pudo reemplazar o barrer el archivo mientras tanto
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    // Elimina los archivos que nadie descargó en maxIdleHours (sobre todo reportes por usuario)
+    @Scheduled(fixedDelayString = "${app.reports.cache.sweep-interval-ms:3600000}")
+    public void sweepIdle() {
+        FileTime limit = FileTime.from(Instant.now().minus(maxIdleHours, ChronoUnit.HOURS));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                try {
+                    if (Files.getLastModifiedTime(file).compareTo(limit) < 0) {
+                        deleteQuietly(file);
+                    }
+                } catch (NoSuchFileException e) {
+                    // reemplazado o eliminado mientras se recorría el directorio
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("No se pudo limpiar la caché de reportes: " + e.getMessage());
+        }
+    }
+
+    private boolean copyIfPresent(Path cached, OutputStream out) throws IOException {
+        try {
+            // La fecha de modificación marca el último uso, para sweepIdle
+            Files.setLastModifiedTime(cached, FileTime.from(Instant.now()));
+            Files.copy(cached, out);
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private String version(ReportType type, UUID userId) {
+        return switch (type) {
+            // Los reportes de propiedades incluyen los datos de contacto del propietario
+            case PROPERTIES_PDF, PROPERTIES_EXCEL ->
+                    token(propertyRepository.findDataVersion()) + "-" + token(userRepository.findDataVersion());
+            case USERS_PDF, USERS_EXCEL -> token(userRepository.findDataVersion());
+            case USER_PDF, USER_EXCEL -> token(userRepository.findDataVersionById(userId)) + "-"
+                    + token(propertyRepository.findDataVersionByUserId(userId));
+        };
+    }
+
+    private static String token(DataVersion version) {
+        long lastModified = version.getLastModified() == null ? 0
+                : version.getLastModified().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return version.getCount() + "_" + lastModified;
+    }
+
+    // Los prefijos no pueden contenerse entre sí: evictOtherVersions borra todo lo que empieza igual
+    private static String prefix(ReportType type, UUID userId, PropertySearchCriteria criteria) {
+        if (type.isPerUser()) {
+            return type.name() + "-" + userId + "-";
+        }
+        if (type == ReportType.PROPERTIES_PDF || type == ReportType.PROPERTIES_EXCEL) {
+            return ReportTemplates.filters(criteria) == null ? type.name() + "-all-"
+                    : type.name() + FILTERED_MARK + filterHash(criteria) + "-";
+        }
+        return type.name() + "-";
+    }
+
+    private static boolean isFiltered(String fileName) {
+        return fileName.startsWith(ReportType.PROPERTIES_PDF.name() + FILTERED_MARK)
+                || fileName.startsWith(ReportType.PROPERTIES_EXCEL.name() + FILTERED_MARK);
+    }
+
+    // toString de Lombok lista todos los campos en orden fijo
+    private static String filterHash(PropertySearchCriteria criteria) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(criteria.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private ReportWriter writerFor(ReportType type, UUID userId, PropertySearchCriteria criteria) {
+        return switch (type) {
+            case PROPERTIES_PDF -> out -> propertyService.writePdfReport(criteria, out);
+            case PROPERTIES_EXCEL -> out -> propertyService.writeExcelReport(criteria, out);
+            case USERS_PDF -> userService::writePdfReport;
+            case USERS_EXCEL -> userService::writeExcelReport;
+            case USER_PDF -> out -> userService.writeUserPdfReport(userId, out);
+            case USER_EXCEL -> out -> userService.writeUserExcelReport(userId, out);
+        };
+    }
+
+    // Solo las versiones terminadas del mismo reporte; los .tmp pueden ser renders en curso
+    private void evictOtherVersions(String prefix, Path current, ReportType type) {
+        try (DirectoryStream<Path> versions =
+                     Files.newDirectoryStream(directory, prefix + "*." + type.getExtension())) {
+            for (Path file : versions) {
+                if (!file.equals(current)) {
+                    deleteQuietly(file);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("No se pudieron eliminar versiones anteriores de " + prefix + ": " + e.getMessage());
+        }
+    }
+
+    // Con más de maxFilteredEntries reportes filtrados terminados, borra los de último uso más antiguo
+    // (la fecha de modificación se renueva en cada descarga, ver copyIfPresent)
+    private void evictLeastRecentlyUsedFiltered() {
+        List<Path> filtered = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                file -> isFiltered(file.getFileName().toString()) && !file.toString().endsWith(".tmp"))) {
+            files.forEach(filtered::add);
+        } catch (IOException e) {
+            System.err.println("No se pudo limitar la caché de reportes filtrados: " + e.getMessage());
+            return;
+        }
+        if (filtered.size() <= maxFilteredEntries) {
+            return;
+        }
+
+        Map<Path, FileTime> lastUsed = new HashMap<>();
+        for (Path file : filtered) {
+            try {
+                lastUsed.put(file, Files.getLastModifiedTime(file));
+            } catch (IOException e) {
+                // reemplazado o eliminado mientras se recorría el directorio
+            }
+        }
+        lastUsed.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue())
+                .limit(Math.max(0, lastUsed.size() - maxFilteredEntries))
+                .forEach(entry -> deleteQuietly(entry.getKey()));
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("No se pudo eliminar el reporte en caché " + file + ": " + e.getMessage());
+        }
+    }
+
+    // Duplica la salida del render: al cliente y al archivo de la caché. No cierra ninguno de los dos.
+    private static final class TeeOutputStream extends OutputStream {
+
+        private final OutputStream first;
+        private final OutputStream second;
+
+        TeeOutputStream(OutputStream first, OutputStream second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            first.write(b);
+            second.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            first.write(b, off, len);
+            second.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            first.flush();
+            second.flush();
+        }
+    }
+}
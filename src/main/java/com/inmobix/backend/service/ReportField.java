@@ -0,0 +1,16 @@
+package com.inmobix.backend.service;
+
+import java.util.function.Function;
+
+// Campo de una plantilla de reporte: etiqueta y cómo obtener el valor de la fila.
+// Si el valor es null la fila se omite (campos opcionales como la fecha de creación).
+record ReportField<T>(String label, Function<T, String> value, boolean centered) {
+
+    static <T> ReportField<T> of(String label, Function<T, String> value) {
+        return new ReportField<>(label, value, false);
+    }
+
+    static <T> ReportField<T> centered(String label, Function<T, String> value) {
+        return new ReportField<>(label, value, true);
+    }
+}
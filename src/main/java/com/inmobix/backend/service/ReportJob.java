@@ -0,0 +1,73 @@
+package com.inmobix.backend.service;
+
+import com.inmobix.backend.model.ReportType;
+import com.inmobix.backend.model.Role;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Trabajo de generación de reporte en segundo plano; vive en memoria hasta que vence su TTL
+@Getter
+public class ReportJob {
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final UUID id;
+    private final ReportType type;
+    private final UUID userId;
+    // Quién encoló el trabajo; las consultas de estado y la descarga se validan contra estos datos
+    private final UUID requesterId;
+    private final Role requesterRole;
+    private final LocalDateTime createdAt;
+
+    private volatile Status status = Status.PENDING;
+    private volatile Path file;
+    private volatile long size;
+    private volatile String error;
+    private volatile LocalDateTime finishedAt;
+    // Último uso del trabajo (fin del render o inicio de una descarga); el TTL se cuenta desde aquí
+    private volatile LocalDateTime lastAccessedAt;
+
+    ReportJob(ReportType type, UUID userId, UUID requesterId, Role requesterRole) {
+        this.id = UUID.randomUUID();
+        this.type = type;
+        this.userId = userId;
+        this.requesterId = requesterId;
+        this.requesterRole = requesterRole;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    void markRunning() {
+        status = Status.RUNNING;
+    }
+
+    void markCompleted(Path file, long size) {
+        this.file = file;
+        this.size = size;
+        this.finishedAt = LocalDateTime.now();
+        this.lastAccessedAt = finishedAt;
+        this.status = Status.COMPLETED;
+    }
+
+    void markFailed(String error) {
+        this.error = error;
+        this.finishedAt = LocalDateTime.now();
+        this.lastAccessedAt = finishedAt;
+        this.status = Status.FAILED;
+    }
+
+    void touch() {
+        lastAccessedAt = LocalDateTime.now();
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+}
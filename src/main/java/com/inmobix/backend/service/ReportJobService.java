@@ -0,0 +1,179 @@
+package com.inmobix.backend.service;
+
+import com.inmobix.backend.dto.PropertySearchCriteria;
+import com.inmobix.backend.exception.BadRequestException;
+import com.inmobix.backend.exception.ResourceNotFoundException;
+import com.inmobix.backend.exception.ServiceUnavailableException;
+import com.inmobix.backend.model.ReportType;
+import com.inmobix.backend.model.Role;
+import com.inmobix.backend.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Generación de reportes en segundo plano: un pool acotado escribe cada reporte en un archivo temporal,
+// el cliente consulta el estado y descarga el archivo cuando está listo
+@Service
+public class ReportJobService {
+
+    private final ReportCacheService reportCacheService;
+    private final PropertyService propertyService;
+    private final UserRepository userRepository;
+
+    private final Map<UUID, ReportJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${app.reports.jobs.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${app.reports.jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${app.reports.jobs.dir:${java.io.tmpdir}/inmobix-reports}")
+    private String directoryPath;
+
+    @Value("${app.reports.jobs.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    private ThreadPoolExecutor executor;
+    private Path directory;
+
+    public ReportJobService(ReportCacheService reportCacheService, PropertyService propertyService,
+            UserRepository userRepository) {
+        this.reportCacheService = reportCacheService;
+        this.propertyService = propertyService;
+        this.userRepository = userRepository;
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        directory = Paths.get(directoryPath);
+        Files.createDirectories(directory);
+        // Archivos de una ejecución anterior: sus trabajos ya no existen en memoria
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, "report-*")) {
+            leftovers.forEach(this::deleteQuietly);
+        }
+
+        // maxConcurrent renders a la vez y como mucho queueCapacity en espera; el resto se rechaza (503)
+        executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("report-worker-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public ReportJob submit(ReportType type, UUID userId, PropertySearchCriteria filters,
+            UUID requesterId, Role requesterRole) {
+        if (filters != null) {
+            if (type != ReportType.PROPERTIES_PDF && type != ReportType.PROPERTIES_EXCEL) {
+                throw new BadRequestException("Los filtros solo aplican a los reportes de propiedades");
+            }
+            propertyService.validateRanges(filters);
+        }
+        if (type.isPerUser()) {
+            if (userId == null) {
+                throw new BadRequestException("El reporte " + type + " requiere userId");
+            }
+            if (!userRepository.existsById(userId)) {
+                throw new ResourceNotFoundException("Usuario no encontrado con id " + userId);
+            }
+        }
+
+        ReportJob job = new ReportJob(type, userId, requesterId, requesterRole);
+        // Si los datos no cambiaron desde el último render, el trabajo es una copia del archivo en caché
+        ReportWriter writer = out -> reportCacheService.write(type, userId, filters, out);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> render(job, writer));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new ServiceUnavailableException(
+                    "Hay demasiados reportes en proceso. Intenta de nuevo en unos minutos");
+        }
+        return job;
+    }
+
+    public ReportJob getJob(UUID id) {
+        ReportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Trabajo de reporte no encontrado o expirado: " + id);
+        }
+        return job;
+    }
+
+    public ReportJob getCompletedJob(UUID id) {
+        ReportJob job = getJob(id);
+        if (job.getStatus() == ReportJob.Status.FAILED) {
+            throw new BadRequestException("El reporte falló: " + job.getError());
+        }
+        if (job.getStatus() != ReportJob.Status.COMPLETED) {
+            throw new BadRequestException("El reporte aún no está listo");
+        }
+        // La descarga se sirve después de retornar (sendfile de Tomcat); renovar el TTL evita que
+        // sweepExpired borre el archivo entre esta consulta y la apertura del archivo
+        job.touch();
+        return job;
+    }
+
+    // Elimina los trabajos terminados sin uso desde hace más de ttlMinutes junto con su archivo
+    @Scheduled(fixedDelayString = "${app.reports.jobs.sweep-interval-ms:60000}")
+    public void sweepExpired() {
+        LocalDateTime limit = LocalDateTime.now().minusMinutes(ttlMinutes);
+        jobs.values().removeIf(job -> {
+            if (!job.isFinished() || job.getLastAccessedAt().isAfter(limit)) {
+                return false;
+            }
+            deleteQuietly(job.getFile());
+            return true;
+        });
+    }
+
+    private void render(ReportJob job, ReportWriter writer) {
+        job.markRunning();
+        Path file = null;
+        try {
+            file = Files.createTempFile(directory, "report-", "." + job.getType().getExtension());
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                writer.writeTo(out);
+            }
+            job.markCompleted(file, Files.size(file));
+        } catch (Exception e) {
+            System.err.println("⚠️ Error al generar reporte " + job.getType() + " (" + job.getId() + "): "
+                    + e.getMessage());
+            deleteQuietly(file);
+            job.markFailed(e.getMessage());
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("No se pudo eliminar el reporte temporal " + file + ": " + e.getMessage());
+        }
+    }
+}
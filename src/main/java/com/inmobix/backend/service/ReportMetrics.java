@@ -0,0 +1,40 @@
+package com.inmobix.backend.service;
+
+import com.inmobix.backend.model.ReportType;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Duración y tamaño de los reportes entregados. source indica de dónde salió el archivo: "cache" (copia de la
+// caché en disco), "render" (generado en la petición) o "bulk" (generado para un ZIP masivo)
+@Component
+public class ReportMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public ReportMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(ReportType type, String source, long startNanos, long bytes, boolean success) {
+        Timer.builder("report.render")
+                .description("Tiempo de generación (o copia desde la caché) de un reporte")
+                .tag("type", type.name())
+                .tag("source", source)
+                .tag("outcome", success ? "success" : "error")
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        if (success) {
+            DistributionSummary.builder("report.size")
+                    .description("Tamaño de los reportes entregados")
+                    .baseUnit("bytes")
+                    .tag("type", type.name())
+                    .tag("source", source)
+                    .register(meterRegistry)
+                    .record(bytes);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.inmobix.backend.service;
+
+import java.util.List;
+
+// Plantilla de reporte: disposición y campos. Se arma una sola vez (ver ReportTemplates) y la usan
+// tanto PdfReport como ExcelReport.
+record ReportTemplate<T>(Layout layout, List<ReportField<T>> fields) {
+
+    enum Layout {
+        DETAIL,  // clave-valor con la etiqueta sombreada (reporte de propiedades)
+        COMPACT, // clave-valor simple (reporte individual de usuario)
+        TABLE    // una fila por elemento, los campos son columnas
+    }
+}
@@ -0,0 +1,158 @@
+package com.inmobix.backend.service;
+
+import com.inmobix.backend.dto.PropertySearchCriteria;
+import com.inmobix.backend.model.Property;
+import com.inmobix.backend.model.User;
+import com.inmobix.backend.service.ReportTemplate.Layout;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+// Plantillas de los reportes de propiedades y usuarios, compartidas por PDF y Excel
+final class ReportTemplates {
+
+    private static final DateTimeFormatter GENERATED_AT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+    private static final DateTimeFormatter CREATED_AT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final DateTimeFormatter CREATED_ON = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final String NOT_AVAILABLE = "N/A";
+
+    private static final List<ReportField<Property>> PROPERTY_FIELDS = List.of(
+            ReportField.of("Título", Property::getTitle),
+            ReportField.of("Descripción", p -> orNotAvailable(p.getDescription())),
+            ReportField.of("Tipo", Property::getPropertyType),
+            ReportField.of("Precio", p -> price(p.getPrice())),
+            ReportField.of("Área", p -> area(p.getArea())),
+            ReportField.of("Dirección", p -> orNotAvailable(p.getAddress())),
+            ReportField.of("Ciudad", Property::getCity),
+            ReportField.of("Departamento", p -> orNotAvailable(p.getState())),
+            ReportField.of("Habitaciones", p -> p.getBedrooms().toString()),
+            ReportField.of("Baños", p -> p.getBathrooms().toString()),
+            ReportField.of("Garajes", p -> p.getGarages().toString()),
+            ReportField.of("Tipo de Propiedad", p -> propertyTypeLabel(p.getPropertyType())),
+            ReportField.of("Tipo de Transacción", p -> "SALE".equals(p.getTransactionType()) ? "Venta" : "Alquiler"),
+            ReportField.of("Disponible", p -> p.getAvailable() ? "Sí" : "No"));
+
+    private static final List<ReportField<Property>> OWNER_FIELDS = List.of(
+            ReportField.of("Propietario", p -> p.getUser() != null ? p.getUser().getName() : NOT_AVAILABLE),
+            ReportField.of("Email Propietario", p -> p.getUser() != null ? orNotAvailable(p.getUser().getEmail()) : null),
+            ReportField.of("Teléfono Propietario",
+                    p -> p.getUser() != null ? orNotAvailable(p.getUser().getPhone()) : null));
+
+    private static final List<ReportField<Property>> CREATED_AT_FIELD = List.of(
+            ReportField.of("Fecha de Creación",
+                    p -> p.getCreatedAt() != null ? p.getCreatedAt().format(CREATED_AT) : null));
+
+    // Reporte general de propiedades; la versión Excel incluye los datos de contacto del propietario
+    static final ReportTemplate<Property> PROPERTY_PDF =
+            new ReportTemplate<>(Layout.DETAIL, concat(PROPERTY_FIELDS, CREATED_AT_FIELD));
+    static final ReportTemplate<Property> PROPERTY_EXCEL =
+            new ReportTemplate<>(Layout.DETAIL, concat(PROPERTY_FIELDS, OWNER_FIELDS, CREATED_AT_FIELD));
+
+    // Propiedades dentro del reporte individual de un usuario
+    static final ReportTemplate<Property> OWNED_PROPERTY = new ReportTemplate<>(Layout.COMPACT, List.of(
+            ReportField.of("Título:", p -> orNotAvailable(p.getTitle())),
+            ReportField.of("Descripción:", p -> orNotAvailable(p.getDescription())),
+            ReportField.of("Tipo:", p -> orNotAvailable(p.getPropertyType())),
+            ReportField.of("Precio:", p -> p.getPrice() != null ? price(p.getPrice()) : NOT_AVAILABLE),
+            ReportField.of("Área:", p -> area(p.getArea())),
+            ReportField.of("Dirección:", p -> orNotAvailable(p.getAddress())),
+            ReportField.of("Ciudad:", p -> orNotAvailable(p.getCity())),
+            ReportField.of("Habitaciones:", p -> p.getBedrooms() != null ? p.getBedrooms().toString() : NOT_AVAILABLE),
+            ReportField.of("Baños:", p -> p.getBathrooms() != null ? p.getBathrooms().toString() : NOT_AVAILABLE),
+            ReportField.of("Estado:", p -> p.getAvailable() != null ? (p.getAvailable() ? "Sí" : "No") : NOT_AVAILABLE)));
+
+    static final ReportTemplate<User> USER_DETAIL = new ReportTemplate<>(Layout.COMPACT, List.of(
+            ReportField.of("Nombre:", User::getName),
+            ReportField.of("Email:", User::getEmail),
+            ReportField.of("Username:", User::getUsername),
+            ReportField.of("Documento:", u -> orNotAvailable(u.getDocumento())),
+            ReportField.of("Teléfono:", u -> orNotAvailable(u.getPhone())),
+            ReportField.of("Rol:", u -> u.getRole().name())));
+
+    static final ReportTemplate<User> USERS_PDF = new ReportTemplate<>(Layout.TABLE, List.of(
+            ReportField.of("Nombre", User::getName),
+            ReportField.of("Email", User::getEmail),
+            ReportField.of("Documento", u -> orNotAvailable(u.getDocumento())),
+            ReportField.of("Teléfono", u -> orNotAvailable(u.getPhone())),
+            ReportField.centered("Rol", u -> u.getRole().name())));
+
+    static final ReportTemplate<User> USERS_EXCEL = new ReportTemplate<>(Layout.TABLE, List.of(
+            ReportField.of("Nombre", User::getName),
+            ReportField.of("Email", User::getEmail),
+            ReportField.of("Username", User::getUsername),
+            ReportField.of("Documento", u -> orNotAvailable(u.getDocumento())),
+            ReportField.of("Teléfono", u -> orNotAvailable(u.getPhone())),
+            ReportField.of("Rol", u -> u.getRole().name())));
+
+    private ReportTemplates() {
+    }
+
+    static String generatedAt() {
+        return "Generado el: " + LocalDateTime.now().format(GENERATED_AT);
+    }
+
+    // Filtros aplicados a un reporte de propiedades, en una línea; null si no hay ninguno
+    static String filters(PropertySearchCriteria criteria) {
+        StringJoiner applied = new StringJoiner(" | ", "Filtros: ", "").setEmptyValue("");
+        addFilter(applied, "Ciudad", criteria.getCity());
+        addFilter(applied, "Departamento", criteria.getState());
+        addFilter(applied, "Tipo", criteria.getPropertyType());
+        addFilter(applied, "Transacción", criteria.getTransactionType());
+        addFilter(applied, "Precio mínimo", criteria.getMinPrice() != null ? price(criteria.getMinPrice()) : null);
+        addFilter(applied, "Precio máximo", criteria.getMaxPrice() != null ? price(criteria.getMaxPrice()) : null);
+        addFilter(applied, "Área mínima", criteria.getMinArea() != null ? area(criteria.getMinArea()) : null);
+        addFilter(applied, "Área máxima", criteria.getMaxArea() != null ? area(criteria.getMaxArea()) : null);
+        addFilter(applied, "Habitaciones mínimas", criteria.getMinBedrooms());
+        addFilter(applied, "Baños mínimos", criteria.getMinBathrooms());
+        addFilter(applied, "Garajes mínimos", criteria.getMinGarages());
+        addFilter(applied, "Disponible", criteria.getAvailable() != null ? (criteria.getAvailable() ? "Sí" : "No") : null);
+        addFilter(applied, "Propietario", criteria.getUserId());
+        addFilter(applied, "Creadas desde",
+                criteria.getCreatedFrom() != null ? criteria.getCreatedFrom().format(CREATED_ON) : null);
+        addFilter(applied, "Creadas hasta",
+                criteria.getCreatedTo() != null ? criteria.getCreatedTo().format(CREATED_ON) : null);
+        String text = applied.toString();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static void addFilter(StringJoiner applied, String label, Object value) {
+        if (value != null && !(value instanceof String text && text.isBlank())) {
+            applied.add(label + ": " + value);
+        }
+    }
+
+    private static String orNotAvailable(String value) {
+        return value != null && !value.isEmpty() ? value : NOT_AVAILABLE;
+    }
+
+    private static String price(BigDecimal price) {
+        return "$" + String.format("%,.2f", price);
+    }
+
+    private static String area(BigDecimal area) {
+        return area != null ? area + " m²" : NOT_AVAILABLE;
+    }
+
+    private static String propertyTypeLabel(String propertyType) {
+        return switch (propertyType) {
+            case "HOUSE" -> "Casa";
+            case "APARTMENT" -> "Apartamento";
+            case "LAND" -> "Terreno";
+            case "COMMERCIAL" -> "Comercial";
+            default -> propertyType;
+        };
+    }
+
+    @SafeVarargs
+    private static <T> List<ReportField<T>> concat(List<ReportField<T>>... parts) {
+        List<ReportField<T>> fields = new ArrayList<>();
+        for (List<ReportField<T>> part : parts) {
+            fields.addAll(part);
+        }
+        return List.copyOf(fields);
+    }
+}
@@ -0,0 +1,11 @@
+package com.inmobix.backend.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Escribe un reporte completo en la salida indicada (respuesta HTTP, archivo temporal, ...)
+@FunctionalInterface
+public interface ReportWriter {
+
+    void writeTo(OutputStream out) throws IOException;
+}
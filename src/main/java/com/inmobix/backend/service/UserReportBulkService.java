@@ -0,0 +1,202 @@
+package com.inmobix.backend.service;
+
+import com.inmobix.backend.dto.BulkUserReportRequest;
+import com.inmobix.backend.exception.BadRequestException;
+import com.inmobix.backend.exception.ResourceNotFoundException;
+import com.inmobix.backend.model.Property;
+import com.inmobix.backend.model.ReportType;
+import com.inmobix.backend.model.User;
+import com.inmobix.backend.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Reportes individuales de muchos usuarios en un solo ZIP. Los usuarios se procesan por lotes: cada lote
+// se carga con sus propiedades en una sola consulta, sus reportes se generan en paralelo en un pool
+// acotado y se escriben en el ZIP en el orden pedido mientras se genera el lote.
+@Service
+public class UserReportBulkService {
+
+    private final UserRepository userRepository;
+    private final ReportMetrics reportMetrics;
+
+    @Value("${app.reports.bulk.max-users:500}")
+    private int maxUsers;
+
+    @Value("${app.reports.bulk.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.reports.bulk.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.reports.excel-window-size:100}")
+    private int excelWindowSize;
+
+    // Compartido por todas las descargas masivas: como mucho parallelism reportes se generan a la vez
+    private ForkJoinPool pool;
+
+    public UserReportBulkService(UserRepository userRepository, ReportMetrics reportMetrics) {
+        this.userRepository = userRepository;
+        this.reportMetrics = reportMetrics;
+    }
+
+    @PostConstruct
+    void init() {
+        pool = new ForkJoinPool(parallelism, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("report-bulk-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // Se resuelve antes de empezar a responder: los errores son un 400/404 y no un ZIP cortado
+    public List<UUID> resolveUserIds(BulkUserReportRequest request) {
+        if (!request.getType().isPerUser()) {
+            throw new BadRequestException("Tipo no soportado: " + request.getType()
+                    + ". Valores permitidos: USER_PDF, USER_EXCEL");
+        }
+
+        if (request.getUserIds() == null || request.getUserIds().isEmpty()) {
+            List<UUID> ids = userRepository.findIdsByRoleAndVerified(request.getRole(), request.getVerified(),
+                    Limit.of(maxUsers + 1));
+            checkSize(ids.size());
+            return ids;
+        }
+
+        List<UUID> ids = new ArrayList<>(new LinkedHashSet<>(request.getUserIds()));
+        checkSize(ids.size());
+        Set<UUID> existing = new HashSet<>(userRepository.findExistingIds(ids));
+        List<UUID> missing = ids.stream().filter(id -> !existing.contains(id)).toList();
+        if (!missing.isEmpty()) {
+            throw new ResourceNotFoundException("Usuarios no encontrados: " + missing);
+        }
+        return ids;
+    }
+
+    public void writeZip(ReportType type, List<UUID> userIds, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // Eliminados después de resolveUserIds: no tienen reporte y se listan al final del ZIP
+        List<UUID> deleted = new ArrayList<>();
+        for (int from = 0; from < userIds.size(); from += batchSize) {
+            List<UUID> batch = userIds.subList(from, Math.min(from + batchSize, userIds.size()));
+            Map<UUID, UserRows> rows = load(batch);
+
+            List<ForkJoinTask<byte[]>> reports = new ArrayList<>(batch.size());
+            for (UUID id : batch) {
+                UserRows user = rows.get(id);
+                if (user == null) {
+                    deleted.add(id);
+                    reports.add(null);
+                } else {
+                    reports.add(pool.submit(() -> render(type, user)));
+                }
+            }
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    if (reports.get(i) != null) {
+                        addEntry(zip, "reporte_usuario_" + batch.get(i) + "." + type.getExtension(),
+                                reports.get(i).join());
+                    }
+                }
+            } finally {
+                // Si el cliente corta la descarga o un render falla, el resto del lote no se genera
+                reports.stream().filter(Objects::nonNull).forEach(report -> report.cancel(true));
+            }
+        }
+        if (!deleted.isEmpty()) {
+            addEntry(zip, "usuarios_omitidos.txt", omittedUsers(deleted));
+        }
+        zip.finish();
+    }
+
+    private static byte[] omittedUsers(List<UUID> deleted) {
+        StringBuilder text = new StringBuilder(
+                "Usuarios eliminados mientras se generaba la descarga (sin reporte):\r\n");
+        deleted.forEach(id -> text.append(id).append("\r\n"));
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Los usuarios llegan ordenados por id y sus propiedades por NEWEST_FIRST, como en el reporte individual
+    private Map<UUID, UserRows> load(List<UUID> batch) {
+        Map<UUID, UserRows> rows = new LinkedHashMap<>();
+        for (Object[] row : userRepository.findWithPropertiesByIdIn(batch)) {
+            User user = (User) row[0];
+            UserRows userRows = rows.computeIfAbsent(user.getId(), id -> new UserRows(user, new ArrayList<>()));
+            if (row[1] != null) {
+                userRows.properties().add((Property) row[1]);
+            }
+        }
+        return rows;
+    }
+
+    private byte[] render(ReportType type, UserRows rows) throws IOException {
+        long start = System.nanoTime();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Property> properties = rows.properties();
+        boolean success = false;
+        try {
+            if (type == ReportType.USER_PDF) {
+                UserReports.writePdf(rows.user(), properties.size(), properties, out);
+            } else {
+                UserReports.writeExcel(rows.user(), properties.size(), properties, excelWindowSize, out);
+            }
+            success = true;
+        } finally {
+            reportMetrics.record(type, "bulk", start, out.size(), success);
+        }
+        return out.toByteArray();
+    }
+
+    // PDF y xlsx ya vienen comprimidos: se guardan sin volver a comprimir (STORED)
+    private static void addEntry(ZipOutputStream zip, String name, byte[] content) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(content.length);
+        entry.setCompressedSize(content.length);
+        entry.setCrc(crc.getValue());
+        zip.putNextEntry(entry);
+        zip.write(content);
+        zip.closeEntry();
+    }
+
+    private void checkSize(int users) {
+        if (users > maxUsers) {
+            throw new BadRequestException("La descarga masiva admite como máximo " + maxUsers + " usuarios");
+        }
+        if (users == 0) {
+            throw new BadRequestException("No hay usuarios que cumplan el filtro");
+        }
+    }
+
+    private record UserRows(User user, List<Property> properties) {
+    }
+}
@@ -0,0 +1,68 @@
+package com.inmobix.backend.service;
+
+import com.inmobix.backend.model.Property;
+import com.inmobix.backend.model.User;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Reporte individual de un usuario con sus propiedades. No consulta la base de datos: lo usan la descarga
+// individual (propiedades leídas por páginas) y la descarga masiva (propiedades ya cargadas por lote).
+final class UserReports {
+
+    private UserReports() {
+    }
+
+    static void writePdf(User user, long propertyCount, Iterable<Property> properties, OutputStream out) {
+        PdfReport report = PdfReport.open(out);
+        report.title("Reporte de Usuario - Inmobix");
+        report.generatedAt(30);
+
+        report.section("Datos del Usuario");
+        report.keyValues(ReportTemplates.USER_DETAIL, user);
+
+        report.section("Propiedades Asociadas", 30);
+        report.note("Total: " + propertyCount + " propiedades", 10);
+
+        if (propertyCount == 0) {
+            report.note("No hay propiedades registradas.");
+        } else {
+            int propIndex = 0;
+            for (Property prop : properties) {
+                report.item("Propiedad #" + (++propIndex), ReportTemplates.OWNED_PROPERTY, prop);
+            }
+        }
+
+        report.footer(30);
+        report.close();
+    }
+
+    static void writeExcel(User user, long propertyCount, Iterable<Property> properties, int excelWindowSize,
+            OutputStream out) throws IOException {
+        try (ExcelReport report = new ExcelReport(excelWindowSize, "Usuario", 5000, 12000)) {
+            report.title("Reporte de Usuario - Inmobix", 1);
+            report.generatedAt(1);
+            report.skip(1);
+
+            report.section("Datos del Usuario");
+            report.keyValues(ReportTemplates.USER_DETAIL, user);
+
+            report.skip(2);
+            report.section("Propiedades Asociadas");
+            report.text("Total: " + propertyCount + " propiedades", 1);
+
+            if (propertyCount == 0) {
+                report.skip(1);
+                report.note("No hay propiedades registradas.");
+            } else {
+                int propIndex = 0;
+                for (Property prop : properties) {
+                    report.skip(2);
+                    report.item("Propiedad #" + (++propIndex), ReportTemplates.OWNED_PROPERTY, prop);
+                }
+            }
+
+            report.write(out);
+        }
+    }
+}
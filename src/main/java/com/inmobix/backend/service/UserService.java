@@ -1,48 +1,58 @@
 package com.inmobix.backend.service;
 
+import com.inmobix.backend.config.CacheConfig;
 import com.inmobix.backend.dto.*;
 import com.inmobix.backend.exception.AuthenticationException;
 import com.inmobix.backend.exception.BadRequestException;
 import com.inmobix.backend.exception.DuplicateResourceException;
 import com.inmobix.backend.exception.ResourceNotFoundException;
+import com.inmobix.backend.model.Property;
+import com.inmobix.backend.model.OneTimeToken;
 import com.inmobix.backend.model.Role;
+import com.inmobix.backend.model.TokenPurpose;
 import com.inmobix.backend.model.User;
 import com.inmobix.backend.repository.PropertyRepository;
+import com.inmobix.backend.repository.PropertySpecifications;
+import com.inmobix.backend.repository.KeysetCursor;
 import com.inmobix.backend.repository.UserRepository;
+import com.inmobix.backend.repository.UserSpecifications;
+import com.inmobix.backend.service.OneTimeTokenService.IssuedToken;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
-
-// iText para PDF
-import com.itextpdf.kernel.colors.ColorConstants;
-import com.itextpdf.kernel.colors.DeviceRgb;
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.PdfWriter;
-import com.itextpdf.layout.Document;
-import com.itextpdf.layout.element.Paragraph;
-import com.itextpdf.layout.properties.TextAlignment;
-import com.itextpdf.layout.properties.UnitValue;
-
-// Apache POI para Excel
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-
-import java.io.ByteArrayOutputStream;
-import java.time.format.DateTimeFormatter;
+
+import java.io.OutputStream;
 
 @Service
 public class UserService {
 
     private final UserRepository repository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashing;
+    private final OneTimeTokenService tokens;
     private final EmailService emailService;
     private final PropertyRepository propertyRepository;
+    private final PropertyService propertyService;
+    // Las operaciones que calculan un hash abren la transacción después de calcularlo
+    private final TransactionTemplate transactionTemplate;
+    // Validación del token antes de calcular un hash; libera la conexión al terminar
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Value("${app.url.backend}")
     private String backendUrl;
@@ -50,52 +60,78 @@ public class UserService {
     @Value("${app.url.frontend}")
     private String frontendUrl;
 
-    public UserService(UserRepository repository, PasswordEncoder passwordEncoder, EmailService emailService,
-            PropertyRepository propertyRepository, PropertyRepository propertyRepository1) {
-        this.repository = repository;
-        this.passwordEncoder = passwordEncoder;
-        this.emailService = emailService;
-        this.propertyRepository = propertyRepository1;
-    }
+    @Value("${app.pagination.default-size:20}")
+    private int defaultPageSize;
 
-    @Transactional
-    public UserResponse register(UserRequest request) {
-        if (repository.findByEmail(request.getEmail()).isPresent()) {
-            throw new DuplicateResourceException("El email " + request.getEmail() + " ya está registrado");
-        }
+    @Value("${app.pagination.max-size:100}")
+    private int maxPageSize;
 
-        if (repository.findByDocumento(request.getDocumento()).isPresent()) {
-            throw new DuplicateResourceException("El documento " + request.getDocumento() + " ya está registrado");
-        }
+    @Value("${app.reports.excel-window-size:100}")
+    private int excelWindowSize;
 
-        User entity = new User();
-        entity.setName(request.getName());
-        entity.setEmail(request.getEmail());
-        entity.setUsername(request.getUsername());
-        entity.setPassword(passwordEncoder.encode(request.getPassword()));
-        entity.setDocumento(request.getDocumento());
-        entity.setPhone(request.getPhone());
-        entity.setBirthDate(request.getBirthDate());
-        entity.setRole(Role.USER);
-        entity.setVerified(false);
+    @Value("${app.reports.pdf-table-flush-rows:200}")
+    private int pdfTableFlushRows;
 
-        // Generar código de 6 dígitos y token único
-        entity.setVerificationCode(generateSixDigitCode());
-        entity.setVerificationToken(generateUniqueToken());
-        entity.setVerificationCodeExpiry(LocalDateTime.now().plusMinutes(5));
+    @Value("${app.reports.chunk-size:500}")
+    private int reportChunkSize;
 
-        User saved = repository.save(entity);
-        sendVerificationEmail(saved);
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final Duration CODE_TTL = Duration.ofMinutes(5);
+    private static final Duration ACCOUNT_ACTION_TTL = Duration.ofMinutes(15);
 
-        return mapToResponseWithToken(saved);
+    public UserService(UserRepository repository, PasswordHashingService passwordHashing, OneTimeTokenService tokens,
+            EmailService emailService, PropertyRepository propertyRepository, PropertyService propertyService,
+            PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.passwordHashing = passwordHashing;
+        this.tokens = tokens;
+        this.emailService = emailService;
+        this.propertyRepository = propertyRepository;
+        this.propertyService = propertyService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
     }
 
-    @Transactional
+    public UserResponse register(UserRequest request) {
+        // BCrypt fuera de la transacción: mientras se calcula el hash no se retiene una conexión de la base
+        String passwordHash = passwordHashing.encode(request.getPassword());
+
+        try {
+            return transactionTemplate.execute(status -> {
+                User entity = new User();
+                entity.setName(request.getName());
+                entity.setEmail(request.getEmail());
+                entity.setUsername(request.getUsername());
+                entity.setPassword(passwordHash);
+                entity.setDocumento(request.getDocumento());
+                entity.setPhone(request.getPhone());
+                entity.setBirthDate(request.getBirthDate());
+                entity.setRole(Role.USER);
+                entity.setVerified(false);
+
+                // Sin consultas previas de existencia: las restricciones únicas deciden en el mismo INSERT,
+                // también entre registros simultáneos
+                User saved = repository.saveAndFlush(entity);
+
+                // Código de 6 dígitos y token único
+                IssuedToken verification = tokens.issue(saved, TokenPurpose.VERIFICATION, CODE_TTL, true);
+                sendVerificationEmail(saved, verification.code());
+
+                return mapToResponseWithToken(saved, verification.token());
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateOf(e, request.getEmail(), request.getUsername(), request.getDocumento(),
+                    "ya está registrado");
+        }
+    }
+
+    // Sin transacción: la consulta libera su conexión antes de comparar el hash
     public UserResponse login(String email, String rawPassword) {
         User user = repository.findByEmail(email)
                 .orElseThrow(() -> new AuthenticationException("Credenciales incorrectas"));
 
-        if (!passwordEncoder.matches(rawPassword, user.getPassword())) {
+        if (!passwordHashing.matches(rawPassword, user.getPassword())) {
             throw new AuthenticationException("Credenciales incorrectas");
         }
 
@@ -104,6 +140,11 @@ public class UserService {
                     "Debes verificar tu correo antes de iniciar sesión. Revisa tu bandeja de entrada.");
         }
 
+        String upgradedHash = passwordHashing.upgradeIfNeeded(rawPassword, user.getPassword());
+        if (upgradedHash != null) {
+            repository.updatePassword(user.getId(), upgradedHash);
+        }
+
         return mapToResponse(user);
     }
 
@@ -113,75 +154,56 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("No existe una cuenta con el email " + email));
 
         // Rate limiting - verificar si hay código activo
-        if (user.getResetTokenExpiry() != null &&
-                user.getResetTokenExpiry().isAfter(LocalDateTime.now())) {
-
-            long secondsRemaining = java.time.Duration.between(
-                    LocalDateTime.now(),
-                    user.getResetTokenExpiry()).getSeconds();
-
-            long minutes = secondsRemaining / 60;
-            long seconds = secondsRemaining % 60;
-
-            throw new BadRequestException(
-                    String.format("Ya hay un código activo. Podrás solicitar uno nuevo en %d:%02d", minutes, seconds));
-        }
+        checkNoActiveCode(user, TokenPurpose.PASSWORD_RESET);
 
         // Generar código de 6 dígitos y token único
-        user.setResetToken(generateSixDigitCode());
-        user.setResetPasswordToken(generateUniqueToken());
-        user.setResetTokenExpiry(LocalDateTime.now().plusMinutes(5));
-        repository.save(user);
+        IssuedToken reset = tokens.issue(user, TokenPurpose.PASSWORD_RESET, CODE_TTL, true);
 
-        sendPasswordResetEmail(user);
+        sendPasswordResetEmail(user, reset.code());
 
         return new ForgotPasswordResponse(
-                user.getResetPasswordToken(),
+                reset.token(),
                 "Se ha enviado un código de recuperación a tu correo. Válido por 5 minutos.");
     }
 
     @Transactional
     public void verifyEmail(String verificationToken, String code) {
-        User user = repository.findByVerificationToken(verificationToken)
+        OneTimeToken token = tokens.find(verificationToken, TokenPurpose.VERIFICATION)
                 .orElseThrow(() -> new BadRequestException("Token de verificación inválido"));
 
-        if (user.getVerificationCode() == null || !user.getVerificationCode().equals(code)) {
+        if (!tokens.codeMatches(token, verificationToken, code)) {
             throw new BadRequestException("Código de verificación inválido");
         }
 
-        if (user.getVerificationCodeExpiry().isBefore(LocalDateTime.now())) {
+        if (tokens.isExpired(token)) {
             throw new BadRequestException("El código ha expirado. Solicita uno nuevo.");
         }
 
+        User user = token.getUser();
         user.setVerified(true);
-        user.setVerificationCode(null);
-        user.setVerificationToken(null);
-        user.setVerificationCodeExpiry(null);
+        tokens.consume(token);
         User saved = repository.save(user);
 
         sendVerificationSuccessEmail(saved);
     }
 
-    @Transactional
     public void resetPassword(String resetPasswordToken, String code, String newPassword) {
-        User user = repository.findByResetPasswordToken(resetPasswordToken)
-                .orElseThrow(() -> new BadRequestException("Token de recuperación inválido"));
+        // Primero el token: uno inventado o vencido no llega al pool de BCrypt, que comparte con el login
+        readOnlyTransactionTemplate.executeWithoutResult(status -> validResetToken(resetPasswordToken, code));
 
-        if (user.getResetToken() == null || !user.getResetToken().equals(code)) {
-            throw new BadRequestException("Código inválido");
-        }
+        String passwordHash = passwordHashing.encode(newPassword);
 
-        if (user.getResetTokenExpiry().isBefore(LocalDateTime.now())) {
-            throw new BadRequestException("El código ha expirado. Solicita uno nuevo.");
-        }
+        // Se vuelve a leer: otra petición pudo consumir el token mientras se calculaba el hash
+        transactionTemplate.executeWithoutResult(status -> {
+            OneTimeToken token = validResetToken(resetPasswordToken, code);
 
-        user.setPassword(passwordEncoder.encode(newPassword));
-        user.setResetToken(null);
-        user.setResetPasswordToken(null);
-        user.setResetTokenExpiry(null);
-        User saved = repository.save(user);
+            User user = token.getUser();
+            user.setPassword(passwordHash);
+            tokens.consume(token);
+            User saved = repository.save(user);
 
-        sendPasswordResetSuccessEmail(saved);
+            sendPasswordResetSuccessEmail(saved);
+        });
     }
 
     @Transactional
@@ -193,28 +215,13 @@ public class UserService {
             throw new BadRequestException("Este usuario ya está verificado");
         }
 
-        if (user.getVerificationCodeExpiry() != null &&
-                user.getVerificationCodeExpiry().isAfter(LocalDateTime.now())) {
+        checkNoActiveCode(user, TokenPurpose.VERIFICATION);
 
-            long secondsRemaining = java.time.Duration.between(
-                    LocalDateTime.now(),
-                    user.getVerificationCodeExpiry()).getSeconds();
+        IssuedToken verification = tokens.issue(user, TokenPurpose.VERIFICATION, CODE_TTL, true);
 
-            long minutes = secondsRemaining / 60;
-            long seconds = secondsRemaining % 60;
+        sendResendVerificationEmail(user, verification.code());
 
-            throw new BadRequestException(
-                    String.format("Ya hay un código activo. Podrás solicitar uno nuevo en %d:%02d", minutes, seconds));
-        }
-
-        user.setVerificationCode(generateSixDigitCode());
-        user.setVerificationToken(generateUniqueToken());
-        user.setVerificationCodeExpiry(LocalDateTime.now().plusMinutes(5));
-        User saved = repository.save(user);
-
-        sendResendVerificationEmail(saved);
-
-        return mapToResponseWithToken(saved);
+        return mapToResponseWithToken(user, verification.token());
     }
 
     public UserResponse getByDocumento(String documento, UUID requesterId, Role requesterRole) {
@@ -228,15 +235,34 @@ public class UserService {
         return mapToResponse(user);
     }
 
-    public List<UserResponse> getAll(Role requesterRole) {
+    // Listado paginado por keyset (columna de orden, id): solo se leen las columnas de UserResponse y cada
+    // página es una consulta con LIMIT, sin importar cuántas cuentas haya
+    public CursorPage<UserResponse> getAll(Role requesterRole, String search, String sort, String direction,
+            String cursor, Integer size) {
         if (requesterRole != Role.ADMIN) {
             throw new AuthenticationException("Solo administradores pueden listar todos los usuarios");
         }
 
-        return repository.findAll()
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        String sortField = UserSpecifications.validSortField(sort);
+        Sort.Direction sortDirection = resolveDirection(direction);
+        int pageSize = resolvePageSize(size);
+
+        Specification<User> spec = UserSpecifications.matchingPrefix(search);
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(UserSpecifications.after(KeysetCursor.decode(cursor), sortField, sortDirection));
+        }
+
+        List<UserResponse> rows = repository.findResponses(spec,
+                UserSpecifications.sort(sortField, sortDirection), pageSize + 1);
+
+        boolean hasNext = rows.size() > pageSize;
+        List<UserResponse> content = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            UserResponse last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(sortKey(last, sortField), last.getId()).encode();
+        }
+        return new CursorPage<>(content, nextCursor, hasNext, content.size());
     }
 
     @Transactional
@@ -244,56 +270,64 @@ public class UserService {
         User user = repository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con id " + userId));
 
-        user.setEditToken(UUID.randomUUID().toString());
-        user.setEditTokenExpiry(LocalDateTime.now().plusMinutes(15));
-        repository.save(user);
+        IssuedToken edit = tokens.issue(user, TokenPurpose.EDIT, ACCOUNT_ACTION_TTL, false);
 
-        sendEditConfirmationEmail(user);
+        sendEditConfirmationEmail(user, edit.token());
     }
 
-    @Transactional
+    // El detalle de propiedad incluye nombre, email y teléfono del propietario
+    @CacheEvict(cacheNames = CacheConfig.PROPERTY_DETAILS, allEntries = true)
     public UserResponse confirmUpdate(String token, UserUpdateRequest request) {
-        User user = repository.findByEditToken(token)
-                .orElseThrow(() -> new BadRequestException("Token inválido o expirado"));
-
-        if (user.getEditTokenExpiry().isBefore(LocalDateTime.now())) {
-            throw new BadRequestException("El token ha expirado. Solicita uno nuevo.");
+        String passwordHash = null;
+        if (request.getPassword() != null && !request.getPassword().isEmpty()) {
+            // Igual que en resetPassword: sin un token válido no se calcula el hash
+            readOnlyTransactionTemplate.executeWithoutResult(status -> validEditToken(token));
+            passwordHash = passwordHashing.encode(request.getPassword());
         }
+        String newPasswordHash = passwordHash;
 
-        if (!user.getEmail().equals(request.getEmail())) {
-            if (repository.findByEmail(request.getEmail()).isPresent()) {
-                throw new DuplicateResourceException("El email " + request.getEmail() + " ya está en uso");
-            }
-            user.setEmail(request.getEmail());
-            user.setVerified(false);
-            user.setVerificationCode(generateSixDigitCode());
-            user.setVerificationToken(generateUniqueToken());
-            user.setVerificationCodeExpiry(LocalDateTime.now().plusMinutes(5));
-            sendVerificationEmail(user);
-        }
+        try {
+            return transactionTemplate.execute(status -> {
+                OneTimeToken editToken = validEditToken(token);
 
-        if (request.getDocumento() != null && !request.getDocumento().equals(user.getDocumento())) {
-            if (repository.findByDocumento(request.getDocumento()).isPresent()) {
-                throw new DuplicateResourceException("El documento " + request.getDocumento() + " ya está en uso");
-            }
-            user.setDocumento(request.getDocumento());
-        }
+                User user = editToken.getUser();
+                boolean emailChanged = !user.getEmail().equals(request.getEmail());
 
-        user.setName(request.getName());
-        user.setUsername(request.getUsername());
+                if (emailChanged) {
+                    user.setEmail(request.getEmail());
+                    user.setVerified(false);
+                }
 
-        if (request.getPassword() != null && !request.getPassword().isEmpty()) {
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
-        }
+                if (request.getDocumento() != null) {
+                    user.setDocumento(request.getDocumento());
+                }
 
-        user.setPhone(request.getPhone());
-        user.setBirthDate(request.getBirthDate());
+                user.setName(request.getName());
+                user.setUsername(request.getUsername());
 
-        user.setEditToken(null);
-        user.setEditTokenExpiry(null);
+                if (newPasswordHash != null) {
+                    user.setPassword(newPasswordHash);
+                }
 
-        User updated = repository.save(user);
-        return mapToResponse(updated);
+                user.setPhone(request.getPhone());
+                user.setBirthDate(request.getBirthDate());
+
+                // El UPDATE se envía aquí para que un email, username o documento en uso se detecte antes de
+                // emitir el token de verificación
+                User updated = repository.saveAndFlush(user);
+
+                if (emailChanged) {
+                    IssuedToken verification = tokens.issue(updated, TokenPurpose.VERIFICATION, CODE_TTL, true);
+                    sendVerificationEmail(updated, verification.code());
+                }
+
+                tokens.consume(editToken);
+
+                return mapToResponse(updated);
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateOf(e, request.getEmail(), request.getUsername(), request.getDocumento(), "ya está en uso");
+        }
     }
 
     @Transactional
@@ -301,278 +335,157 @@ public class UserService {
         User user = repository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con id " + userId));
 
-        user.setDeleteToken(UUID.randomUUID().toString());
-        user.setDeleteTokenExpiry(LocalDateTime.now().plusMinutes(15));
-        repository.save(user);
+        IssuedToken delete = tokens.issue(user, TokenPurpose.DELETE, ACCOUNT_ACTION_TTL, false);
 
-        sendDeleteConfirmationEmail(user);
+        sendDeleteConfirmationEmail(user, delete.token());
     }
 
+    @CacheEvict(cacheNames = CacheConfig.PROPERTY_DETAILS, allEntries = true)
     @Transactional
     public void confirmDelete(String token) {
-        User user = repository.findByDeleteToken(token)
+        OneTimeToken deleteToken = tokens.find(token, TokenPurpose.DELETE)
                 .orElseThrow(() -> new BadRequestException("Token inválido o expirado"));
 
-        if (user.getDeleteTokenExpiry().isBefore(LocalDateTime.now())) {
+        if (tokens.isExpired(deleteToken)) {
             throw new BadRequestException("El token ha expirado. Solicita uno nuevo.");
         }
 
-        repository.deleteById(user.getId());
+        // Los demás tokens del usuario se borran en cascada con él
+        UUID userId = deleteToken.getUser().getId();
+        tokens.consume(deleteToken);
+        repository.deleteById(userId);
     }
 
     // ==================== MÉTODOS PRIVADOS ====================
 
-    private String generateSixDigitCode() {
-        int code = new Random().nextInt(900000) + 100000;
-        return String.valueOf(code);
+    private OneTimeToken validResetToken(String resetPasswordToken, String code) {
+        OneTimeToken token = tokens.find(resetPasswordToken, TokenPurpose.PASSWORD_RESET)
+                .orElseThrow(() -> new BadRequestException("Token de recuperación inválido"));
+
+        if (!tokens.codeMatches(token, resetPasswordToken, code)) {
+            throw new BadRequestException("Código inválido");
+        }
+
+        if (tokens.isExpired(token)) {
+            throw new BadRequestException("El código ha expirado. Solicita uno nuevo.");
+        }
+        return token;
     }
 
-    private String generateUniqueToken() {
-        return UUID.randomUUID().toString() + "_" + System.currentTimeMillis();
+    private OneTimeToken validEditToken(String token) {
+        OneTimeToken editToken = tokens.find(token, TokenPurpose.EDIT)
+                .orElseThrow(() -> new BadRequestException("Token inválido o expirado"));
+
+        if (tokens.isExpired(editToken)) {
+            throw new BadRequestException("El token ha expirado. Solicita uno nuevo.");
+        }
+        return editToken;
     }
 
-    private void sendVerificationEmail(User user) {
-        String html = String
-                .format("""
-                        <!DOCTYPE html>
-                        <html>
-                        <head>
-                            <meta charset="UTF-8">
-                            <meta name="viewport" content="width=device-width, initial-scale=1.0">
-                        </head>
-                        <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333; margin: 0; padding: 0;">
-                            <div style="max-width: 600px; margin: 0 auto; padding: 20px; border: 1px solid #ddd; border-radius: 10px;">
-                                <h2 style="color: #2E86C1;">¡Bienvenido a Inmobix, %s!</h2>
-                                <p>Gracias por registrarte. Para activar tu cuenta, utiliza el siguiente código de verificación:</p>
-                                <div style="text-align: center; margin: 30px 0;">
-                                    <div style="background:#f0f0f0; padding:20px; border-radius:8px; display:inline-block;">
-                                        <h1 style="margin:0; color:#2E86C1; font-size:48px; letter-spacing:8px;">%s</h1>
-                                    </div>
-                                </div>
-                                <p style="color: #666; font-size: 14px; text-align: center;">Este código expira en <strong>5 minutos</strong></p>
-                                <p style="color: #666; font-size: 14px;">Si no creaste esta cuenta, ignora este correo.</p>
-                            </div>
-                        </body>
-                        </html>
-                        """,
-                        user.getName(), user.getVerificationCode())
-                .stripIndent().trim();
-
-        emailService.sendHtmlEmail(user.getEmail(), "Verifica tu cuenta de Inmobix", html);
+    // Violación de una restricción única de users (INSERT o UPDATE optimista) como 409 indicando el campo.
+    // Si no es una restricción conocida pero sí una clave duplicada (SQLState 23505) se responde 409 genérico;
+    // cualquier otra violación se devuelve tal cual.
+    private RuntimeException duplicateOf(DataIntegrityViolationException e, String email, String username,
+            String documento, String detail) {
+        String constraint = null;
+        String sqlState = null;
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                constraint = violation.getConstraintName();
+                sqlState = violation.getSQLState();
+                break;
+            }
+        }
+
+        // H2 informa el nombre con esquema y sufijos (PUBLIC.UK_USERS_EMAIL_INDEX_4 ...)
+        String name = constraint != null ? constraint.toLowerCase(Locale.ROOT) : "";
+        if (name.contains(User.UK_EMAIL)) {
+            return new DuplicateResourceException("El email " + email + " " + detail);
+        }
+        if (name.contains(User.UK_USERNAME)) {
+            return new DuplicateResourceException("El username " + username + " " + detail);
+        }
+        if (name.contains(User.UK_DOCUMENTO)) {
+            return new DuplicateResourceException("El documento " + documento + " " + detail);
+        }
+        if (UNIQUE_VIOLATION.equals(sqlState)) {
+            return new DuplicateResourceException("El email, username o documento " + detail);
+        }
+        return e;
+    }
+
+    private static String sortKey(UserResponse user, String sortField) {
+        return switch (sortField) {
+            case "email" -> user.getEmail();
+            case "username" -> user.getUsername();
+            default -> user.getName();
+        };
+    }
+
+    private static Sort.Direction resolveDirection(String direction) {
+        if (direction == null || direction.isBlank()) {
+            return Sort.Direction.ASC;
+        }
+        return Sort.Direction.fromOptionalString(direction)
+                .orElseThrow(() -> new BadRequestException("Dirección de orden inválida: usa asc o desc"));
     }
 
-    private void sendResendVerificationEmail(User user) {
-        String html = String
-                .format("""
-                        <!DOCTYPE html>
-                        <html>
-                        <head>
-                            <meta charset="UTF-8">
-                            <meta name="viewport" content="width=device-width, initial-scale=1.0">
-                        </head>
-                        <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333; margin: 0; padding: 0;">
-                            <div style="max-width: 600px; margin: 0 auto; padding: 20px; border: 1px solid #ddd; border-radius: 10px;">
-                                <h2 style="color: #F39C12;">Verifica tu cuenta</h2>
-                                <p>Hola %s,</p>
-                                <p>Has solicitado un nuevo código de verificación. Utiliza el siguiente código para activar tu cuenta:</p>
-                                <div style="text-align: center; margin: 30px 0;">
-                                    <div style="background:#f0f0f0; padding:20px; border-radius:8px; display:inline-block;">
-                                        <h1 style="margin:0; color:#F39C12; font-size:48px; letter-spacing:8px;">%s</h1>
-                                    </div>
-                                </div>
-                                <p style="color: #666; font-size: 14px; text-align: center;">Este código expira en <strong>5 minutos</strong></p>
-                                <p style="color: #666; font-size: 14px;">Si no solicitaste este código, ignora este correo.</p>
-                            </div>
-                        </body>
-                        </html>
-                        """,
-                        user.getName(), user.getVerificationCode())
-                .stripIndent().trim();
-
-        emailService.sendHtmlEmail(user.getEmail(), "Verifica tu cuenta de Inmobix", html);
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        if (size < 1) {
+            throw new BadRequestException("El tamaño de página debe ser mayor a 0");
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    // Límite de reenvío: mientras el código anterior siga vigente no se emite otro
+    private void checkNoActiveCode(User user, TokenPurpose purpose) {
+        Optional<LocalDateTime> activeExpiry = tokens.activeExpiry(user.getId(), purpose);
+        if (activeExpiry.isEmpty()) {
+            return;
+        }
+
+        long secondsRemaining = Duration.between(LocalDateTime.now(), activeExpiry.get()).getSeconds();
+
+        long minutes = secondsRemaining / 60;
+        long seconds = secondsRemaining % 60;
+
+        throw new BadRequestException(
+                String.format("Ya hay un código activo. Podrás solicitar uno nuevo en %d:%02d", minutes, seconds));
+    }
+
+    private void sendVerificationEmail(User user, String code) {
+        emailService.queueEmail(user.getEmail(), new EmailMessage.Verification(user.getName(), code));
+    }
+
+    private void sendResendVerificationEmail(User user, String code) {
+        emailService.queueEmail(user.getEmail(), new EmailMessage.ResendVerification(user.getName(), code));
     }
 
     private void sendVerificationSuccessEmail(User user) {
-        String html = String
-                .format("""
-                        <!DOCTYPE html>
-                        <html>
-                        <head>
-                            <meta charset="UTF-8">
-                            <meta name="viewport" content="width=device-width, initial-scale=1.0">
-                        </head>
-                        <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333; margin: 0; padding: 0;">
-                            <div style="max-width: 600px; margin: 0 auto; padding: 20px; border: 1px solid #ddd; border-radius: 10px;">
-                                <h2 style="color: #27AE60; text-align: center;">¡Verificación Exitosa!</h2>
-                                <p>Hola %s,</p>
-                                <p>¡Excelentes noticias! Tu cuenta ha sido verificada exitosamente.</p>
-                                <div style="background:#f0f0f0; padding:20px; border-radius:8px; margin:20px 0;">
-                                    <p style="margin:0; color:#555;"><strong>✅ Tu email está confirmado</strong></p>
-                                    <p style="margin:5px 0 0 0; color:#555;"><strong>✅ Ya puedes iniciar sesión</strong></p>
-                                    <p style="margin:5px 0 0 0; color:#555;"><strong>✅ Tu cuenta está activa</strong></p>
-                                </div>
-                                <p>Ahora puedes acceder a todas las funcionalidades de Inmobix:</p>
-                                <ul style="color:#555;">
-                                    <li>Publicar propiedades</li>
-                                    <li>Buscar inmuebles</li>
-                                    <li>Contactar vendedores</li>
-                                    <li>Gestionar tu perfil</li>
-                                </ul>
-                                <div style="text-align: center; margin: 30px 0;">
-                                    <a href="%s" style="background:#2E86C1; color:white; padding:12px 30px; text-decoration:none; border-radius:6px; display:inline-block; font-weight: bold;">
-                                        Ir a Inmobix
-                                    </a>
-                                </div>
-                                <p style="color: #666; font-size: 14px; text-align: center;">¡Bienvenido a la comunidad Inmobix!</p>
-                            </div>
-                        </body>
-                        </html>
-                        """,
-                        user.getName(), frontendUrl)
-                .stripIndent().trim();
-
-        emailService.sendHtmlEmail(user.getEmail(), "✅ Cuenta verificada - Inmobix", html);
+        emailService.queueEmail(user.getEmail(), new EmailMessage.VerificationSuccess(user.getName(), frontendUrl));
     }
 
-    private void sendPasswordResetEmail(User user) {
-        String html = String
-                .format("""
-                        <!DOCTYPE html>
-                        <html>
-                        <head>
-                            <meta charset="UTF-8">
-                            <meta name="viewport" content="width=device-width, initial-scale=1.0">
-                        </head>
-                        <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333; margin: 0; padding: 0;">
-                            <div style="max-width: 600px; margin: 0 auto; padding: 20px; border: 1px solid #ddd; border-radius: 10px;">
-                                <h2 style="color: #E74C3C;">Recuperar contraseña</h2>
-                                <p>Hola %s,</p>
-                                <p>Recibimos una solicitud para restablecer tu contraseña. Utiliza el siguiente código:</p>
-                                <div style="text-align: center; margin: 30px 0;">
-                                    <div style="background:#f0f0f0; padding:20px; border-radius:8px; display:inline-block;">
-                                        <h1 style="margin:0; color:#E74C3C; font-size:48px; letter-spacing:8px;">%s</h1>
-                                    </div>
-                                </div>
-                                <p style="color: #666; font-size: 14px; text-align: center;">Este código expira en <strong>5 minutos</strong></p>
-                                <p style="color: #666; font-size: 14px;">Si no solicitaste restablecer tu contraseña, ignora este correo.</p>
-                            </div>
-                        </body>
-                        </html>
-                        """,
-                        user.getName(), user.getResetToken())
-                .stripIndent().trim();
-
-        emailService.sendHtmlEmail(user.getEmail(), "Restablecer contraseña - Inmobix", html);
+    private void sendPasswordResetEmail(User user, String code) {
+        emailService.queueEmail(user.getEmail(), new EmailMessage.PasswordReset(user.getName(), code));
     }
 
     private void sendPasswordResetSuccessEmail(User user) {
         String dateTime = java.time.LocalDateTime.now().format(
                 java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"));
 
-        String html = String
-                .format("""
-                        <!DOCTYPE html>
-                        <html>
-                        <head>
-                            <meta charset="UTF-8">
-                            <meta name="viewport" content="width=device-width, initial-scale=1.0">
-                        </head>
-                        <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333; margin: 0; padding: 0;">
-                            <div style="max-width: 600px; margin: 0 auto; padding: 20px; border: 1px solid #ddd; border-radius: 10px;">
-                                <h2 style="color: #27AE60; text-align: center;">Contraseña Actualizada</h2>
-                                <p>Hola %s,</p>
-                                <p>Tu contraseña ha sido restablecida exitosamente.</p>
-                                <div style="background:#f0f0f0; padding:20px; border-radius:8px; margin:20px 0;">
-                                    <p style="margin:0; color:#555;"><strong>✅ Contraseña actualizada</strong></p>
-                                    <p style="margin:5px 0 0 0; color:#555;"><strong>✅ Tu cuenta está segura</strong></p>
-                                    <p style="margin:5px 0 0 0; color:#555;"><strong>🕐 Fecha: %s</strong></p>
-                                </div>
-                                <p style="color:#666;">Ya puedes iniciar sesión con tu nueva contraseña.</p>
-                                <div style="text-align: center; margin: 30px 0;">
-                                    <a href="%s" style="background:#2E86C1; color:white; padding:12px 30px; text-decoration:none; border-radius:6px; display:inline-block; font-weight: bold;">
-                                        Iniciar Sesión
-                                    </a>
-                                </div>
-                                <div style="background:#fff3cd; border-left:4px solid #ffc107; padding:15px; margin:20px 0;">
-                                    <p style="margin:0; color:#856404;"><strong>⚠️ Aviso de Seguridad</strong></p>
-                                    <p style="margin:5px 0 0 0; color:#856404;">Si no solicitaste este cambio, tu cuenta podría estar comprometida. Por favor, contacta a soporte inmediatamente.</p>
-                                </div>
-                                <p style="color: #666; font-size: 14px; text-align: center;">Equipo de Inmobix</p>
-                            </div>
-                        </body>
-                        </html>
-                        """,
-                        user.getName(), dateTime, frontendUrl)
-                .stripIndent().trim();
-
-        emailService.sendHtmlEmail(user.getEmail(), "✅ Contraseña actualizada - Inmobix", html);
+        emailService.queueEmail(user.getEmail(), new EmailMessage.PasswordResetSuccess(user.getName(), dateTime,
+                frontendUrl));
     }
 
-    void sendEditConfirmationEmail(User user) {
-        String TOKEN = user.getEditToken();
-
-        String html = String
-                .format("""
-                        <!DOCTYPE html>
-                        <html>
-                        <head>
-                            <meta charset="UTF-8">
-                            <meta name="viewport" content="width=device-width, initial-scale=1.0">
-                        </head>
-                        <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333; margin: 0; padding: 0;">
-                            <div style="max-width: 600px; margin: 0 auto; padding: 20px; border: 1px solid #ddd; border-radius: 10px;">
-                                <h2 style="color: #F39C12;">Confirmar edición de cuenta</h2>
-                                <p>Hola %s,</p>
-                                <p>Has solicitado editar tu información. Copia y pega este token:</p>
-                                <div style="text-align: center; margin: 30px 0;">
-                                    <div style="background:#f5f5f5; border:2px dashed #F39C12; padding:15px; border-radius:6px; display:inline-block;">
-                                        <code style="font-size:20px; font-weight:bold; color:#F39C12; letter-spacing:2px; user-select:all;">%s</code>
-                                    </div>
-                                </div>
-                                <p style="color: #666; font-size: 14px;">Este token expira en 15 minutos.</p>
-                                <p style="color: #666; font-size: 14px;">Si no solicitaste editar tu cuenta, ignora este correo.</p>
-                            </div>
-                        </body>
-                        </html>
-                        """,
-                        user.getName(), TOKEN)
-                .stripIndent().trim();
-
-        emailService.sendHtmlEmail(user.getEmail(), "Confirmar edición - Inmobix", html);
+    void sendEditConfirmationEmail(User user, String token) {
+        emailService.queueEmail(user.getEmail(), new EmailMessage.EditConfirmation(user.getName(), token));
     }
 
-    private void sendDeleteConfirmationEmail(User user) {
-        String TOKEN = user.getDeleteToken();
-
-        String html = String
-                .format("""
-                        <!DOCTYPE html>
-                        <html>
-                        <head>
-                            <meta charset="UTF-8">
-                            <meta name="viewport" content="width=device-width, initial-scale=1.0">
-                        </head>
-                        <body style="font-family: Arial, sans-serif; line-height: 1.6; color: #333; margin: 0; padding: 0;">
-                            <div style="max-width: 600px; margin: 0 auto; padding: 20px; border: 1px solid #ddd; border-radius: 10px;">
-                                <h2 style="color: #C0392B;">⚠️ Confirmar eliminación de cuenta</h2>
-                                <p>Hola %s,</p>
-                                <p>Has solicitado eliminar tu cuenta de Inmobix. Esta acción es <strong>irreversible</strong>.</p>
-                                <p>Si estás seguro, copia y pega este token:</p>
-                                <div style="text-align: center; margin: 30px 0;">
-                                    <div style="background:#f5f5f5; border:2px dashed #C0392B; padding:15px; border-radius:6px; display:inline-block;">
-                                        <code style="font-size:20px; font-weight:bold; color:#C0392B; letter-spacing:2px; user-select:all;">%s</code>
-                                    </div>
-                                </div>
-                                <p style="color: #666; font-size: 14px;">Este token expira en 15 minutos.</p>
-                                <p style="color: #666; font-size: 14px;">Si no solicitaste eliminar tu cuenta, ignora este correo y cambia tu contraseña inmediatamente.</p>
-                            </div>
-                        </body>
-                        </html>
-                        """,
-                        user.getName(), TOKEN)
-                .stripIndent().trim();
-
-        emailService.sendHtmlEmail(user.getEmail(), "⚠️ Confirmar eliminación - Inmobix", html);
+    private void sendDeleteConfirmationEmail(User user, String token) {
+        emailService.queueEmail(user.getEmail(), new EmailMessage.DeleteConfirmation(user.getName(), token));
     }
 
     private UserResponse mapToResponse(User user) {
@@ -590,597 +503,112 @@ public class UserService {
         return response;
     }
 
-    private UserResponse mapToResponseWithToken(User user) {
+    private UserResponse mapToResponseWithToken(User user, String verificationToken) {
         UserResponse response = mapToResponse(user);
-        response.setVerificationToken(user.getVerificationToken());
+        response.setVerificationToken(verificationToken);
         return response;
     }
 
+    // El PDF se escribe directo en la salida; la tabla de usuarios se arma en modo "large table"
+    // y se vacía cada pdfTableFlushRows filas para no retener todas las celdas en memoria
     @Transactional(readOnly = true)
-    public byte[] generatePdfReport() {
-        List<User> users = repository.findAll();
-
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
-            PdfDocument pdf = new PdfDocument(writer);
-            Document document = new Document(pdf);
-
-            // Título
-            Paragraph title = new Paragraph("Reporte de Usuarios - Inmobix")
-                    .setFontSize(24)
-                    .setBold()
-                    .setFontColor(new DeviceRgb(46, 134, 193))
-                    .setTextAlignment(TextAlignment.CENTER);
-            document.add(title);
-
-            // Fecha
-            String dateStr = LocalDateTime.now().format(
-                    DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"));
-            Paragraph date = new Paragraph("Generado el: " + dateStr)
-                    .setFontSize(10)
-                    .setItalic()
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setMarginBottom(20);
-            document.add(date);
-
-            // Resumen
-            Paragraph summary = new Paragraph("Total de usuarios registrados: " + users.size())
-                    .setFontSize(12)
-                    .setBold()
-                    .setMarginBottom(15);
-            document.add(summary);
-
-            // Tabla
-            float[] columnWidths = { 3, 4, 2.5f, 2.5f, 1.5f };
-            com.itextpdf.layout.element.Table table = new com.itextpdf.layout.element.Table(
-                    UnitValue.createPercentArray(columnWidths)).useAllAvailableWidth();
-
-            // Encabezados
-            String[] headers = { "Nombre", "Email", "Documento", "Teléfono", "Rol" };
-            for (String header : headers) {
-                com.itextpdf.layout.element.Cell cell = new com.itextpdf.layout.element.Cell()
-                        .add(new Paragraph(header).setBold())
-                        .setBackgroundColor(new DeviceRgb(46, 134, 193))
-                        .setFontColor(ColorConstants.WHITE)
-                        .setTextAlignment(TextAlignment.CENTER);
-                table.addHeaderCell(cell);
-            }
-
-            // Datos
-            for (User user : users) {
-                table.addCell(new com.itextpdf.layout.element.Cell()
-                        .add(new Paragraph(user.getName())));
-                table.addCell(new com.itextpdf.layout.element.Cell()
-                        .add(new Paragraph(user.getEmail())));
-                table.addCell(new com.itextpdf.layout.element.Cell()
-                        .add(new Paragraph(user.getDocumento() != null ? user.getDocumento() : "N/A")));
-                table.addCell(new com.itextpdf.layout.element.Cell()
-                        .add(new Paragraph(user.getPhone() != null ? user.getPhone() : "N/A")));
-                table.addCell(new com.itextpdf.layout.element.Cell()
-                        .add(new Paragraph(user.getRole().name()))
-                        .setTextAlignment(TextAlignment.CENTER));
+    public void writePdfReport(OutputStream out) {
+        // El total sale de un conteo: los usuarios se leen por páginas mientras se escribe el reporte
+        long total = repository.count();
+
+        try {
+            PdfReport report = PdfReport.open(out);
+            report.title("Reporte de Usuarios - Inmobix");
+            report.generatedAt(20);
+            report.summary("Total de usuarios registrados: " + total, 15);
+
+            PdfReport.LargeTable<User> table = report.table(ReportTemplates.USERS_PDF,
+                    new float[] { 3, 4, 2.5f, 2.5f, 1.5f }, pdfTableFlushRows);
+            for (User user : reportRows()) {
+                table.addRow(user);
             }
+            table.complete();
 
-            document.add(table);
-
-            // Footer
-            Paragraph footer = new Paragraph("Inmobix - Sistema de Gestión Inmobiliaria")
-                    .setFontSize(8)
-                    .setItalic()
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setMarginTop(20);
-            document.add(footer);
-
-            document.close();
-            return baos.toByteArray();
+            report.footer(20);
+            report.close();
 
         } catch (Exception e) {
             throw new RuntimeException("Error al generar reporte PDF: " + e.getMessage(), e);
         }
     }
 
+    // Libro en streaming (SXSSF): la memoria depende de excelWindowSize, no del número de filas
     @Transactional(readOnly = true)
-    public byte[] generateExcelReport() {
-        List<User> users = repository.findAll();
-
-        try (XSSFWorkbook workbook = new XSSFWorkbook();
-                ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-
-            Sheet sheet = workbook.createSheet("Usuarios");
-
-            // Estilos
-            CellStyle titleStyle = workbook.createCellStyle();
-            Font titleFont = workbook.createFont();
-            titleFont.setBold(true);
-            titleFont.setFontHeightInPoints((short) 16);
-            titleFont.setColor(IndexedColors.WHITE.getIndex());
-            titleStyle.setFont(titleFont);
-            titleStyle.setFillForegroundColor(IndexedColors.DARK_BLUE.getIndex());
-            titleStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-            titleStyle.setAlignment(HorizontalAlignment.CENTER);
-            titleStyle.setVerticalAlignment(VerticalAlignment.CENTER);
-
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-            headerStyle.setFillForegroundColor(IndexedColors.LIGHT_BLUE.getIndex());
-            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-            headerStyle.setAlignment(HorizontalAlignment.CENTER);
-            headerStyle.setBorderBottom(BorderStyle.THIN);
-            headerStyle.setBorderTop(BorderStyle.THIN);
-            headerStyle.setBorderLeft(BorderStyle.THIN);
-            headerStyle.setBorderRight(BorderStyle.THIN);
-
-            CellStyle dataStyle = workbook.createCellStyle();
-            dataStyle.setBorderBottom(BorderStyle.THIN);
-            dataStyle.setBorderTop(BorderStyle.THIN);
-            dataStyle.setBorderLeft(BorderStyle.THIN);
-            dataStyle.setBorderRight(BorderStyle.THIN);
-
-            CellStyle alternateStyle = workbook.createCellStyle();
-            alternateStyle.cloneStyleFrom(dataStyle);
-            alternateStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-            alternateStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-
-            // Título
-            Row titleRow = sheet.createRow(0);
-            titleRow.setHeight((short) 600);
-            org.apache.poi.ss.usermodel.Cell titleCell = titleRow.createCell(0);
-            titleCell.setCellValue("Reporte de Usuarios - Inmobix");
-            titleCell.setCellStyle(titleStyle);
-            sheet.addMergedRegion(new CellRangeAddress(0, 0, 0, 5));
-
-            // Fecha
-            Row dateRow = sheet.createRow(1);
-            org.apache.poi.ss.usermodel.Cell dateCell = dateRow.createCell(0);
-            dateCell.setCellValue("Generado el: " + LocalDateTime.now().format(
-                    DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss")));
-            sheet.addMergedRegion(new CellRangeAddress(1, 1, 0, 5));
-
-            // Resumen
-            Row summaryRow = sheet.createRow(2);
-            summaryRow.setHeight((short) 400);
-            org.apache.poi.ss.usermodel.Cell summaryCell = summaryRow.createCell(0);
-            summaryCell.setCellValue("Total de usuarios registrados: " + users.size());
-            CellStyle summaryStyle = workbook.createCellStyle();
-            Font summaryFont = workbook.createFont();
-            summaryFont.setBold(true);
-            summaryStyle.setFont(summaryFont);
-            summaryCell.setCellStyle(summaryStyle);
-            sheet.addMergedRegion(new CellRangeAddress(2, 2, 0, 5));
-
-            // Encabezados
-            Row headerRow = sheet.createRow(4);
-            String[] headers = { "Nombre", "Email", "Username", "Documento", "Teléfono", "Rol" };
-            for (int i = 0; i < headers.length; i++) {
-                org.apache.poi.ss.usermodel.Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            // Datos
-            int rowNum = 5;
-            for (User user : users) {
-                Row row = sheet.createRow(rowNum);
-                CellStyle style = (rowNum % 2 == 0) ? dataStyle : alternateStyle;
-
-                org.apache.poi.ss.usermodel.Cell cell0 = row.createCell(0);
-                cell0.setCellValue(user.getName());
-                cell0.setCellStyle(style);
-
-                org.apache.poi.ss.usermodel.Cell cell1 = row.createCell(1);
-                cell1.setCellValue(user.getEmail());
-                cell1.setCellStyle(style);
-
-                org.apache.poi.ss.usermodel.Cell cell2 = row.createCell(2);
-                cell2.setCellValue(user.getUsername());
-                cell2.setCellStyle(style);
-
-                org.apache.poi.ss.usermodel.Cell cell3 = row.createCell(3);
-                cell3.setCellValue(user.getDocumento() != null ? user.getDocumento() : "N/A");
-                cell3.setCellStyle(style);
-
-                org.apache.poi.ss.usermodel.Cell cell4 = row.createCell(4);
-                cell4.setCellValue(user.getPhone() != null ? user.getPhone() : "N/A");
-                cell4.setCellStyle(style);
-
-                org.apache.poi.ss.usermodel.Cell cell5 = row.createCell(5);
-                cell5.setCellValue(user.getRole().name());
-                cell5.setCellStyle(style);
-
-                rowNum++;
+    public void writeExcelReport(OutputStream out) {
+        long total = repository.count();
+
+        // Columnas: nombre, email, username, documento, teléfono, rol
+        try (ExcelReport report = new ExcelReport(excelWindowSize, "Usuarios", 6000, 8000, 5000, 4500, 4500, 3000)) {
+            report.title("Reporte de Usuarios - Inmobix", 5);
+            report.generatedAt(5);
+            report.summary("Total de usuarios registrados: " + total, 5);
+            report.skip(1);
+
+            report.tableHeader(ReportTemplates.USERS_EXCEL);
+            for (User user : reportRows()) {
+                report.tableRow(ReportTemplates.USERS_EXCEL, user);
             }
 
-            // Ajustar anchos
-            sheet.setColumnWidth(0, 6000); // Nombre
-            sheet.setColumnWidth(1, 8000); // Email
-            sheet.setColumnWidth(2, 5000); // Username
-            sheet.setColumnWidth(3, 4500); // Documento
-            sheet.setColumnWidth(4, 4500); // Teléfono
-            sheet.setColumnWidth(5, 3000); // Rol
-
-            workbook.write(baos);
-            return baos.toByteArray();
+            report.write(out);
 
         } catch (Exception e) {
             throw new RuntimeException("Error al generar reporte Excel: " + e.getMessage(), e);
         }
     }
 
-    // ==================== REPORTE PDF INDIVIDUAL CON PROPIEDADES
-    // ====================
-    // ==================== REPORTE PDF INDIVIDUAL CON PROPIEDADES
+    // Los reportes por usuario se escriben en el cuerpo de la respuesta: la existencia se comprueba antes, mientras
+    // todavía se puede responder 404 en JSON
+    public void requireExists(UUID userId) {
+        if (!repository.existsById(userId)) {
+            throw new ResourceNotFoundException("Usuario no encontrado con id " + userId);
+        }
+    }
+
+    // ==================== REPORTE PDF INDIVIDUAL CON PROPIEDADES ====================
 
     @Transactional(readOnly = true)
-    public byte[] generateUserPdfReport(UUID userId) {
+    public void writeUserPdfReport(UUID userId, OutputStream out) {
         User user = repository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con id " + userId));
 
-        List<com.inmobix.backend.model.Property> properties = propertyRepository.findByUserId(userId);
-
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
-            PdfDocument pdf = new PdfDocument(writer);
-            Document document = new Document(pdf);
-
-            // Título
-            Paragraph title = new Paragraph("Reporte de Usuario - Inmobix")
-                    .setFontSize(24)
-                    .setBold()
-                    .setFontColor(new DeviceRgb(46, 134, 193))
-                    .setTextAlignment(TextAlignment.CENTER);
-            document.add(title);
-
-            // Fecha
-            String dateStr = LocalDateTime.now().format(
-                    DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss"));
-            Paragraph date = new Paragraph("Generado el: " + dateStr)
-                    .setFontSize(10)
-                    .setItalic()
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setMarginBottom(30);
-            document.add(date);
-
-            // Sección: Datos del Usuario
-            Paragraph sectionTitle = new Paragraph("Datos del Usuario")
-                    .setFontSize(16)
-                    .setBold()
-                    .setFontColor(new DeviceRgb(46, 134, 193))
-                    .setMarginBottom(10);
-            document.add(sectionTitle);
-
-            // Tabla de datos del usuario (formato clave-valor)
-            float[] userWidths = { 2, 4 };
-            com.itextpdf.layout.element.Table userTable = new com.itextpdf.layout.element.Table(
-                    UnitValue.createPercentArray(userWidths)).useAllAvailableWidth();
-
-            userTable.addCell(new com.itextpdf.layout.element.Cell()
-                    .add(new Paragraph("Nombre:").setBold()));
-            userTable.addCell(new com.itextpdf.layout.element.Cell()
-                    .add(new Paragraph(user.getName())));
-
-            userTable.addCell(new com.itextpdf.layout.element.Cell()
-                    .add(new Paragraph("Email:").setBold()));
-            userTable.addCell(new com.itextpdf.layout.element.Cell()
-                    .add(new Paragraph(user.getEmail())));
-
-            userTable.addCell(new com.itextpdf.layout.element.Cell()
-                    .add(new Paragraph("Username:").setBold()));
-            userTable.addCell(new com.itextpdf.layout.element.Cell()
-                    .add(new Paragraph(user.getUsername())));
-
-            userTable.addCell(new com.itextpdf.layout.element.Cell()
-                    .add(new Paragraph("Documento:").setBold()));
-            userTable.addCell(new com.itextpdf.layout.element.Cell()
-                    .add(new Paragraph(user.getDocumento() != null ? user.getDocumento() : "N/A")));
-
-            userTable.addCell(new com.itextpdf.layout.element.Cell()
-                    .add(new Paragraph("Teléfono:").setBold()));
-            userTable.addCell(new com.itextpdf.layout.element.Cell()
-                    .add(new Paragraph(user.getPhone() != null ? user.getPhone() : "N/A")));
-
-            userTable.addCell(new com.itextpdf.layout.element.Cell()
-                    .add(new Paragraph("Rol:").setBold()));
-            userTable.addCell(new com.itextpdf.layout.element.Cell()
-                    .add(new Paragraph(user.getRole().name())));
-
-            document.add(userTable);
-
-            // Sección: Propiedades
-            Paragraph propSection = new Paragraph("Propiedades Asociadas")
-                    .setFontSize(16)
-                    .setBold()
-                    .setFontColor(new DeviceRgb(46, 134, 193))
-                    .setMarginTop(30)
-                    .setMarginBottom(10);
-            document.add(propSection);
-
-            Paragraph propCount = new Paragraph("Total: " + properties.size() + " propiedades")
-                    .setFontSize(11)
-                    .setItalic()
-                    .setMarginBottom(10);
-            document.add(propCount);
-
-            if (properties.isEmpty()) {
-                Paragraph noProp = new Paragraph("No hay propiedades registradas.")
-                        .setFontSize(11)
-                        .setItalic();
-                document.add(noProp);
-            } else {
-                int propIndex = 1;
-                for (com.inmobix.backend.model.Property prop : properties) {
-                    // Título de la propiedad
-                    Paragraph propTitle = new Paragraph("Propiedad #" + propIndex)
-                            .setFontSize(13)
-                            .setBold()
-                            .setFontColor(new DeviceRgb(39, 174, 96))
-                            .setMarginTop(15)
-                            .setMarginBottom(5);
-                    document.add(propTitle);
-
-                    // Tabla clave-valor para esta propiedad
-                    com.itextpdf.layout.element.Table propTable = new com.itextpdf.layout.element.Table(
-                            UnitValue.createPercentArray(userWidths)).useAllAvailableWidth();
-
-                    propTable.addCell(new com.itextpdf.layout.element.Cell()
-                            .add(new Paragraph("Título:").setBold()));
-                    propTable.addCell(new com.itextpdf.layout.element.Cell()
-                            .add(new Paragraph(prop.getTitle() != null ? prop.getTitle() : "N/A")));
-
-                    propTable.addCell(new com.itextpdf.layout.element.Cell()
-                            .add(new Paragraph("Descripción:").setBold()));
-                    propTable.addCell(new com.itextpdf.layout.element.Cell()
-                            .add(new Paragraph(prop.getDescription() != null ? prop.getDescription() : "N/A")));
-
-                    propTable.addCell(new com.itextpdf.layout.element.Cell()
-                            .add(new Paragraph("Tipo:").setBold()));
-                    propTable.addCell(new com.itextpdf.layout.element.Cell()
-                            .add(new Paragraph(
-                                    prop.getPropertyType() != null ? prop.getPropertyType().toString() : "N/A")));
-
-                    propTable.addCell(new com.itextpdf.layout.element.Cell()
-                            .add(new Paragraph("Precio:").setBold()));
-                    propTable.addCell(new com.itextpdf.layout.element.Cell()
-                            .add(new Paragraph(prop.getPrice() != null ? "$" + prop.getPrice().toString() : "N/A")));
-
-                    propTable.addCell(new com.itextpdf.layout.element.Cell()
-                            .add(new Paragraph("Área:").setBold()));
-                    propTable.addCell(new com.itextpdf.layout.element.Cell()
-                            .add(new Paragraph(prop.getArea() != null ? prop.getArea().toString() + " m²" : "N/A")));
-
-                    propTable.addCell(new com.itextpdf.layout.element.Cell()
-                            .add(new Paragraph("Dirección:").setBold()));
-                    propTable.addCell(new com.itextpdf.layout.element.Cell()
-                            .add(new Paragraph(prop.getAddress() != null ? prop.getAddress() : "N/A")));
-
-                    propTable.addCell(new com.itextpdf.layout.element.Cell()
-                            .add(new Paragraph("Ciudad:").setBold()));
-                    propTable.addCell(new com.itextpdf.layout.element.Cell()
-                            .add(new Paragraph(prop.getCity() != null ? prop.getCity() : "N/A")));
-
-                    propTable.addCell(new com.itextpdf.layout.element.Cell()
-                            .add(new Paragraph("Habitaciones:").setBold()));
-                    propTable.addCell(new com.itextpdf.layout.element.Cell()
-                            .add(new Paragraph(prop.getBedrooms() != null ? prop.getBedrooms().toString() : "N/A")));
-
-                    propTable.addCell(new com.itextpdf.layout.element.Cell()
-                            .add(new Paragraph("Baños:").setBold()));
-                    propTable.addCell(new com.itextpdf.layout.element.Cell()
-                            .add(new Paragraph(prop.getBathrooms() != null ? prop.getBathrooms().toString() : "N/A")));
-
-                    propTable.addCell(new com.itextpdf.layout.element.Cell()
-                            .add(new Paragraph("Estado:").setBold()));
-                    propTable.addCell(new com.itextpdf.layout.element.Cell()
-                            .add(new Paragraph(prop.getAvailable() != null ? prop.getAvailable().toString() : "N/A")));
-
-                    document.add(propTable);
-                    propIndex++;
-                }
-            }
-
-            // Footer
-            Paragraph footer = new Paragraph("Inmobix - Sistema de Gestión Inmobiliaria")
-                    .setFontSize(8)
-                    .setItalic()
-                    .setTextAlignment(TextAlignment.CENTER)
-                    .setMarginTop(30);
-            document.add(footer);
-
-            document.close();
-            return baos.toByteArray();
+        long propertyCount = propertyRepository.count(PropertySpecifications.ownedBy(userId));
 
+        try {
+            UserReports.writePdf(user, propertyCount,
+                    propertyService.reportRows(PropertySpecifications.ownedBy(userId)), out);
         } catch (Exception e) {
             throw new RuntimeException("Error al generar reporte PDF: " + e.getMessage(), e);
         }
     }
 
-    // ==================== REPORTE EXCEL INDIVIDUAL CON PROPIEDADES
-    // ====================
+    // ==================== REPORTE EXCEL INDIVIDUAL CON PROPIEDADES ====================
 
     @Transactional(readOnly = true)
-    public byte[] generateUserExcelReport(UUID userId) {
+    public void writeUserExcelReport(UUID userId, OutputStream out) {
         User user = repository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con id " + userId));
 
-        List<com.inmobix.backend.model.Property> properties = propertyRepository.findByUserId(userId);
-
-        try (XSSFWorkbook workbook = new XSSFWorkbook();
-                ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-
-            Sheet sheet = workbook.createSheet("Usuario");
-
-            // Estilos
-            CellStyle titleStyle = workbook.createCellStyle();
-            Font titleFont = workbook.createFont();
-            titleFont.setBold(true);
-            titleFont.setFontHeightInPoints((short) 16);
-            titleFont.setColor(IndexedColors.WHITE.getIndex());
-            titleStyle.setFont(titleFont);
-            titleStyle.setFillForegroundColor(IndexedColors.DARK_BLUE.getIndex());
-            titleStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-            titleStyle.setAlignment(HorizontalAlignment.CENTER);
-
-            CellStyle sectionStyle = workbook.createCellStyle();
-            Font sectionFont = workbook.createFont();
-            sectionFont.setBold(true);
-            sectionFont.setFontHeightInPoints((short) 12);
-            sectionFont.setColor(IndexedColors.WHITE.getIndex());
-            sectionStyle.setFont(sectionFont);
-            sectionStyle.setFillForegroundColor(IndexedColors.LIGHT_BLUE.getIndex());
-            sectionStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-
-            CellStyle propTitleStyle = workbook.createCellStyle();
-            Font propTitleFont = workbook.createFont();
-            propTitleFont.setBold(true);
-            propTitleFont.setFontHeightInPoints((short) 11);
-            propTitleFont.setColor(IndexedColors.WHITE.getIndex());
-            propTitleStyle.setFont(propTitleFont);
-            propTitleStyle.setFillForegroundColor(IndexedColors.GREEN.getIndex());
-            propTitleStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-
-            CellStyle labelStyle = workbook.createCellStyle();
-            Font labelFont = workbook.createFont();
-            labelFont.setBold(true);
-            labelStyle.setFont(labelFont);
-            labelStyle.setBorderBottom(BorderStyle.THIN);
-            labelStyle.setBorderTop(BorderStyle.THIN);
-            labelStyle.setBorderLeft(BorderStyle.THIN);
-            labelStyle.setBorderRight(BorderStyle.THIN);
-
-            CellStyle dataStyle = workbook.createCellStyle();
-            dataStyle.setBorderBottom(BorderStyle.THIN);
-            dataStyle.setBorderTop(BorderStyle.THIN);
-            dataStyle.setBorderLeft(BorderStyle.THIN);
-            dataStyle.setBorderRight(BorderStyle.THIN);
-
-            // Título
-            Row titleRow = sheet.createRow(0);
-            titleRow.setHeight((short) 600);
-            org.apache.poi.ss.usermodel.Cell titleCell = titleRow.createCell(0);
-            titleCell.setCellValue("Reporte de Usuario - Inmobix");
-            titleCell.setCellStyle(titleStyle);
-            sheet.addMergedRegion(new CellRangeAddress(0, 0, 0, 1));
-
-            // Fecha
-            Row dateRow = sheet.createRow(1);
-            org.apache.poi.ss.usermodel.Cell dateCell = dateRow.createCell(0);
-            dateCell.setCellValue("Generado el: " + LocalDateTime.now().format(
-                    DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss")));
-            sheet.addMergedRegion(new CellRangeAddress(1, 1, 0, 1));
-
-            // Sección: Datos del Usuario
-            Row sectionRow = sheet.createRow(3);
-            org.apache.poi.ss.usermodel.Cell sectionCell = sectionRow.createCell(0);
-            sectionCell.setCellValue("Datos del Usuario");
-            sectionCell.setCellStyle(sectionStyle);
-            sectionRow.createCell(1).setCellStyle(sectionStyle);
-            sheet.addMergedRegion(new CellRangeAddress(3, 3, 0, 1));
-
-            // Datos del usuario (formato clave-valor)
-            int rowNum = 4;
-
-            rowNum = addKeyValueRow(sheet, rowNum, "Nombre:", user.getName(), labelStyle, dataStyle);
-            rowNum = addKeyValueRow(sheet, rowNum, "Email:", user.getEmail(), labelStyle, dataStyle);
-            rowNum = addKeyValueRow(sheet, rowNum, "Username:", user.getUsername(), labelStyle, dataStyle);
-            rowNum = addKeyValueRow(sheet, rowNum, "Documento:",
-                    user.getDocumento() != null ? user.getDocumento() : "N/A", labelStyle, dataStyle);
-            rowNum = addKeyValueRow(sheet, rowNum, "Teléfono:", user.getPhone() != null ? user.getPhone() : "N/A",
-                    labelStyle, dataStyle);
-            rowNum = addKeyValueRow(sheet, rowNum, "Rol:", user.getRole().name(), labelStyle, dataStyle);
-
-            // Sección: Propiedades
-            rowNum += 2;
-            Row propSectionRow = sheet.createRow(rowNum);
-            org.apache.poi.ss.usermodel.Cell propSectionCell = propSectionRow.createCell(0);
-            propSectionCell.setCellValue("Propiedades Asociadas");
-            propSectionCell.setCellStyle(sectionStyle);
-            propSectionRow.createCell(1).setCellStyle(sectionStyle);
-            sheet.addMergedRegion(new CellRangeAddress(rowNum, rowNum, 0, 1));
-            rowNum++;
-
-            Row countRow = sheet.createRow(rowNum);
-            countRow.createCell(0).setCellValue("Total: " + properties.size() + " propiedades");
-            sheet.addMergedRegion(new CellRangeAddress(rowNum, rowNum, 0, 1));
-            rowNum++;
-
-            if (properties.isEmpty()) {
-                rowNum++;
-                Row noPropRow = sheet.createRow(rowNum);
-                org.apache.poi.ss.usermodel.Cell noPropCell = noPropRow.createCell(0);
-                noPropCell.setCellValue("No hay propiedades registradas.");
-                CellStyle italicStyle = workbook.createCellStyle();
-                Font italicFont = workbook.createFont();
-                italicFont.setItalic(true);
-                italicStyle.setFont(italicFont);
-                noPropCell.setCellStyle(italicStyle);
-            } else {
-                int propIndex = 1;
-                for (com.inmobix.backend.model.Property prop : properties) {
-                    rowNum += 2;
-
-                    // Título de la propiedad
-                    Row propHeaderRow = sheet.createRow(rowNum);
-                    org.apache.poi.ss.usermodel.Cell propHeaderCell = propHeaderRow.createCell(0);
-                    propHeaderCell.setCellValue("Propiedad #" + propIndex);
-                    propHeaderCell.setCellStyle(propTitleStyle);
-                    propHeaderRow.createCell(1).setCellStyle(propTitleStyle);
-                    sheet.addMergedRegion(new CellRangeAddress(rowNum, rowNum, 0, 1));
-                    rowNum++;
-
-                    // Datos de la propiedad (formato clave-valor)
-                    rowNum = addKeyValueRow(sheet, rowNum, "Título:", prop.getTitle() != null ? prop.getTitle() : "N/A",
-                            labelStyle, dataStyle);
-                    rowNum = addKeyValueRow(sheet, rowNum, "Descripción:",
-                            prop.getDescription() != null ? prop.getDescription() : "N/A", labelStyle, dataStyle);
-                    rowNum = addKeyValueRow(sheet, rowNum, "Tipo:",
-                            prop.getPropertyType() != null ? prop.getPropertyType().toString() : "N/A", labelStyle,
-                            dataStyle);
-                    rowNum = addKeyValueRow(sheet, rowNum, "Precio:",
-                            prop.getPrice() != null ? "$" + String.format("%,.2f", prop.getPrice()) : "N/A", labelStyle,
-                            dataStyle);
-                    rowNum = addKeyValueRow(sheet, rowNum, "Área:",
-                            prop.getArea() != null ? prop.getArea() + " m²" : "N/A", labelStyle, dataStyle);
-                    rowNum = addKeyValueRow(sheet, rowNum, "Dirección:",
-                            prop.getAddress() != null ? prop.getAddress() : "N/A", labelStyle, dataStyle);
-                    rowNum = addKeyValueRow(sheet, rowNum, "Ciudad:", prop.getCity() != null ? prop.getCity() : "N/A",
-                            labelStyle, dataStyle);
-                    rowNum = addKeyValueRow(sheet, rowNum, "Habitaciones:",
-                            prop.getBedrooms() != null ? prop.getBedrooms().toString() : "N/A", labelStyle, dataStyle);
-                    rowNum = addKeyValueRow(sheet, rowNum, "Baños:",
-                            prop.getBathrooms() != null ? prop.getBathrooms().toString() : "N/A", labelStyle,
-                            dataStyle);
-                    rowNum = addKeyValueRow(sheet, rowNum, "Estado:",
-                            prop.getAvailable() != null ? (prop.getAvailable() ? "Si" : "No") : "N/A", labelStyle,
-                            dataStyle);
-
-                    propIndex++;
-                }
-            }
-
-            // Ajustar anchos
-            sheet.setColumnWidth(0, 5000);
-            sheet.setColumnWidth(1, 12000);
-
-            workbook.write(baos);
-            return baos.toByteArray();
+        long propertyCount = propertyRepository.count(PropertySpecifications.ownedBy(userId));
 
+        try {
+            UserReports.writeExcel(user, propertyCount,
+                    propertyService.reportRows(PropertySpecifications.ownedBy(userId)), excelWindowSize, out);
         } catch (Exception e) {
             throw new RuntimeException("Error al generar reporte Excel: " + e.getMessage(), e);
         }
     }
 
-    private int addKeyValueRow(Sheet sheet, int rowNum, String label, String value, CellStyle labelStyle,
-            CellStyle dataStyle) {
-        Row row = sheet.createRow(rowNum);
-        org.apache.poi.ss.usermodel.Cell labelCell = row.createCell(0);
-        labelCell.setCellValue(label);
-        labelCell.setCellStyle(labelStyle);
-
-        org.apache.poi.ss.usermodel.Cell valueCell = row.createCell(1);
-        valueCell.setCellValue(value);
-        valueCell.setCellStyle(dataStyle);
-
-        return rowNum + 1;
+    // Usuarios para reportes, por páginas de reportChunkSize ordenadas por id; entre páginas se limpia
+    // el contexto de persistencia. Debe recorrerse dentro de una transacción.
+    private Iterable<User> reportRows() {
+        return new KeysetChunks<User>(reportChunkSize, last -> last == null
+                ? repository.findAllByOrderByIdAsc(Limit.of(reportChunkSize))
+                : repository.findByIdGreaterThanOrderByIdAsc(last.getId(), Limit.of(reportChunkSize)),
+                entityManager::clear);
     }
-}
\ No newline at end of file
+}
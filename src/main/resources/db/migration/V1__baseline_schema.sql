@@ -0,0 +1,65 @@
+-- Esquema inicial, equivalente al que generaba Hibernate con ddl-auto=update.
+-- En bases existentes esta versión se registra como línea base y no se ejecuta.
+
+CREATE TABLE users (
+    id                       UUID         NOT NULL,
+    name                     VARCHAR(255) NOT NULL,
+    email                    VARCHAR(255) NOT NULL,
+    username                 VARCHAR(255) NOT NULL,
+    password                 VARCHAR(255) NOT NULL,
+    documento                VARCHAR(255),
+    phone                    VARCHAR(255),
+    birth_date               DATE,
+    role                     VARCHAR(255) NOT NULL,
+    verified                 BOOLEAN      NOT NULL,
+    verification_code        VARCHAR(255),
+    verification_token       VARCHAR(255),
+    verification_code_expiry TIMESTAMP(6),
+    reset_token              VARCHAR(255),
+    reset_password_token     VARCHAR(255),
+    reset_token_expiry       TIMESTAMP(6),
+    edit_token               VARCHAR(255),
+    edit_token_expiry        TIMESTAMP(6),
+    delete_token             VARCHAR(255),
+    delete_token_expiry      TIMESTAMP(6),
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_documento UNIQUE (documento),
+    CONSTRAINT ck_users_role CHECK (role IN ('ADMIN', 'USER'))
+);
+
+CREATE TABLE properties (
+    id               UUID           NOT NULL,
+    title            VARCHAR(255)   NOT NULL,
+    description      TEXT,
+    address          VARCHAR(255)   NOT NULL,
+    city             VARCHAR(255)   NOT NULL,
+    state            VARCHAR(255)   NOT NULL,
+    price            NUMERIC(15, 2) NOT NULL,
+    area             NUMERIC(10, 2),
+    bedrooms         INTEGER        NOT NULL,
+    bathrooms        INTEGER        NOT NULL,
+    garages          INTEGER        NOT NULL,
+    property_type    VARCHAR(255)   NOT NULL,
+    transaction_type VARCHAR(255)   NOT NULL,
+    available        BOOLEAN        NOT NULL,
+    image_url        VARCHAR(255),
+    created_at       TIMESTAMP(6)   NOT NULL,
+    updated_at       TIMESTAMP(6),
+    id_user          UUID,
+    CONSTRAINT pk_properties PRIMARY KEY (id),
+    CONSTRAINT fk_properties_user FOREIGN KEY (id_user) REFERENCES users (id)
+);
+
+-- Tabla compartida por las entidades de playground (UserClass y UserClassJDPY)
+CREATE TABLE userclass (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    nombre   VARCHAR(255),
+    name     VARCHAR(255),
+    email    VARCHAR(255) NOT NULL,
+    telefono VARCHAR(255),
+    phone    VARCHAR(255),
+    CONSTRAINT pk_userclass PRIMARY KEY (id),
+    CONSTRAINT uk_userclass_email UNIQUE (email)
+);
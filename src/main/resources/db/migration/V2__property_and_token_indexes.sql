@@ -0,0 +1,58 @@
+-- Índices alineados con las consultas de PropertyRepository / PropertySpecifications.
+-- Todos los listados ordenan por (created_at DESC, id DESC) para la paginación por keyset,
+-- por eso cada filtro de igualdad lleva ese orden como sufijo.
+
+CREATE INDEX idx_properties_created_at_id
+    ON properties (created_at DESC, id DESC);
+
+-- /available: índice parcial, solo las filas disponibles
+CREATE INDEX idx_properties_available_created_at_id
+    ON properties (created_at DESC, id DESC)
+    WHERE available = true;
+
+CREATE INDEX idx_properties_city_created_at_id
+    ON properties (city, created_at DESC, id DESC);
+
+CREATE INDEX idx_properties_type_created_at_id
+    ON properties (property_type, created_at DESC, id DESC);
+
+CREATE INDEX idx_properties_transaction_created_at_id
+    ON properties (transaction_type, created_at DESC, id DESC);
+
+-- Búsqueda combinada más frecuente: ciudad + tipo de transacción
+CREATE INDEX idx_properties_city_transaction_created_at_id
+    ON properties (city, transaction_type, created_at DESC, id DESC);
+
+-- Rangos de precio (/price-range y /search)
+CREATE INDEX idx_properties_price
+    ON properties (price);
+
+-- Propiedades por propietario; también cubre la llave foránea al borrar usuarios
+CREATE INDEX idx_properties_user_created_at_id
+    ON properties (id_user, created_at DESC, id DESC);
+
+-- Búsquedas por token/código de UserRepository. Son índices parciales porque
+-- la gran mayoría de usuarios no tiene un token activo.
+CREATE INDEX idx_users_verification_token
+    ON users (verification_token)
+    WHERE verification_token IS NOT NULL;
+
+CREATE INDEX idx_users_verification_code
+    ON users (verification_code)
+    WHERE verification_code IS NOT NULL;
+
+CREATE INDEX idx_users_reset_password_token
+    ON users (reset_password_token)
+    WHERE reset_password_token IS NOT NULL;
+
+CREATE INDEX idx_users_reset_token
+    ON users (reset_token)
+    WHERE reset_token IS NOT NULL;
+
+CREATE INDEX idx_users_edit_token
+    ON users (edit_token)
+    WHERE edit_token IS NOT NULL;
+
+CREATE INDEX idx_users_delete_token
+    ON users (delete_token)
+    WHERE delete_token IS NOT NULL;
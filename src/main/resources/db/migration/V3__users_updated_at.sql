@@ -0,0 +1,11 @@
+-- Marca de última modificación en usuarios: junto con properties.updated_at forma la versión de datos
+-- que identifica los reportes en caché (ver ReportCacheService).
+
+ALTER TABLE users ADD COLUMN updated_at TIMESTAMP(6);
+
+UPDATE users SET updated_at = now() WHERE updated_at IS NULL;
+UPDATE properties SET updated_at = created_at WHERE updated_at IS NULL;
+
+-- max(updated_at) se resuelve leyendo un extremo del índice
+CREATE INDEX idx_users_updated_at ON users (updated_at);
+CREATE INDEX idx_properties_updated_at ON properties (updated_at);
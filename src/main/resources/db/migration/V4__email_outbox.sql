@@ -0,0 +1,29 @@
+-- Bandeja de salida de correos: se escribe en la misma transacción que la operación que genera el correo
+-- y un despachador en segundo plano lo entrega a Postmark después del commit (ver EmailOutboxDispatcher).
+
+CREATE TABLE email_outbox (
+    id              UUID          NOT NULL,
+    recipient       VARCHAR(255)  NOT NULL,
+    subject         VARCHAR(255)  NOT NULL,
+    html_body       TEXT          NOT NULL,
+    text_body       TEXT          NOT NULL,
+    status          VARCHAR(20)   NOT NULL,
+    attempts        INTEGER       NOT NULL,
+    next_attempt_at TIMESTAMP(6)  NOT NULL,
+    last_error      VARCHAR(1000),
+    message_id      VARCHAR(255),
+    created_at      TIMESTAMP(6)  NOT NULL,
+    sent_at         TIMESTAMP(6),
+    CONSTRAINT pk_email_outbox PRIMARY KEY (id),
+    CONSTRAINT ck_email_outbox_status CHECK (status IN ('PENDING', 'SENT', 'FAILED'))
+);
+
+-- El despachador solo busca pendientes vencidos: índice parcial, los enviados no ocupan espacio en él
+CREATE INDEX idx_email_outbox_pending_next_attempt
+    ON email_outbox (next_attempt_at)
+    WHERE status = 'PENDING';
+
+-- Limpieza de enviados antiguos
+CREATE INDEX idx_email_outbox_sent_at
+    ON email_outbox (sent_at)
+    WHERE status = 'SENT';
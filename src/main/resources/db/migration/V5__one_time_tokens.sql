@@ -0,0 +1,71 @@
+-- Tokens de un solo uso (verificación de email, recuperación de contraseña, edición y eliminación de cuenta)
+-- fuera de users. Se guarda el SHA-256 del token y, si el flujo usa código de 6 dígitos, el SHA-256 de
+-- "token:código": quien lea la tabla no puede usar ni adivinar ninguno de los dos.
+
+CREATE TABLE one_time_tokens (
+    id         UUID          NOT NULL,
+    token_hash VARCHAR(64)   NOT NULL,
+    code_hash  VARCHAR(64),
+    purpose    VARCHAR(20)   NOT NULL,
+    user_id    UUID          NOT NULL,
+    expires_at TIMESTAMP(6)  NOT NULL,
+    created_at TIMESTAMP(6)  NOT NULL,
+    CONSTRAINT pk_one_time_tokens PRIMARY KEY (id),
+    CONSTRAINT fk_one_time_tokens_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE,
+    CONSTRAINT ck_one_time_tokens_purpose CHECK (purpose IN ('VERIFICATION', 'PASSWORD_RESET', 'EDIT', 'DELETE'))
+);
+
+-- Búsqueda del token recibido: una sola consulta por índice único
+CREATE UNIQUE INDEX idx_one_time_tokens_token_hash
+    ON one_time_tokens (token_hash);
+
+-- Un token vigente por usuario y propósito (al emitir uno nuevo se reemplaza); también sirve el límite de reenvío
+CREATE UNIQUE INDEX idx_one_time_tokens_user_purpose
+    ON one_time_tokens (user_id, purpose);
+
+-- Barrido de vencidos
+CREATE INDEX idx_one_time_tokens_expires_at
+    ON one_time_tokens (expires_at);
+
+-- Los tokens vigentes se migran para no cortar los flujos en curso; los vencidos se descartan
+INSERT INTO one_time_tokens (id, token_hash, code_hash, purpose, user_id, expires_at, created_at)
+SELECT gen_random_uuid(),
+       encode(sha256(convert_to(verification_token, 'UTF8')), 'hex'),
+       encode(sha256(convert_to(verification_token || ':' || verification_code, 'UTF8')), 'hex'),
+       'VERIFICATION', id, verification_code_expiry, now()
+FROM users
+WHERE verification_token IS NOT NULL AND verification_code IS NOT NULL AND verification_code_expiry > now();
+
+INSERT INTO one_time_tokens (id, token_hash, code_hash, purpose, user_id, expires_at, created_at)
+SELECT gen_random_uuid(),
+       encode(sha256(convert_to(reset_password_token, 'UTF8')), 'hex'),
+       encode(sha256(convert_to(reset_password_token || ':' || reset_token, 'UTF8')), 'hex'),
+       'PASSWORD_RESET', id, reset_token_expiry, now()
+FROM users
+WHERE reset_password_token IS NOT NULL AND reset_token IS NOT NULL AND reset_token_expiry > now();
+
+INSERT INTO one_time_tokens (id, token_hash, code_hash, purpose, user_id, expires_at, created_at)
+SELECT gen_random_uuid(), encode(sha256(convert_to(edit_token, 'UTF8')), 'hex'), NULL, 'EDIT', id,
+       edit_token_expiry, now()
+FROM users
+WHERE edit_token IS NOT NULL AND edit_token_expiry > now();
+
+INSERT INTO one_time_tokens (id, token_hash, code_hash, purpose, user_id, expires_at, created_at)
+SELECT gen_random_uuid(), encode(sha256(convert_to(delete_token, 'UTF8')), 'hex'), NULL, 'DELETE', id,
+       delete_token_expiry, now()
+FROM users
+WHERE delete_token IS NOT NULL AND delete_token_expiry > now();
+
+-- users queda solo con los datos de la cuenta (la fila que lee cada login); los índices de V2 sobre estas
+-- columnas se eliminan con ellas
+ALTER TABLE users
+    DROP COLUMN verification_code,
+    DROP COLUMN verification_token,
+    DROP COLUMN verification_code_expiry,
+    DROP COLUMN reset_token,
+    DROP COLUMN reset_password_token,
+    DROP COLUMN reset_token_expiry,
+    DROP COLUMN edit_token,
+    DROP COLUMN edit_token_expiry,
+    DROP COLUMN delete_token,
+    DROP COLUMN delete_token_expiry;
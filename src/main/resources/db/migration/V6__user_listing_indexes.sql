@@ -0,0 +1,16 @@
+-- Índices del listado de usuarios (/api/users, ver UserSpecifications).
+-- Orden por keyset (columna, id): email y username ya tienen índice único (uk_users_*), que con LIMIT se
+-- recorre en orden; name necesita el suyo.
+CREATE INDEX idx_users_name_id
+    ON users (name, id);
+
+-- Búsqueda por prefijo sin distinguir mayúsculas: lower(col) LIKE 'abc%'. text_pattern_ops permite usar el
+-- índice con LIKE sea cual sea la collation de la base.
+CREATE INDEX idx_users_name_prefix
+    ON users (lower(name) text_pattern_ops);
+
+CREATE INDEX idx_users_email_prefix
+    ON users (lower(email) text_pattern_ops);
+
+CREATE INDEX idx_users_documento_prefix
+    ON users (lower(documento) text_pattern_ops);
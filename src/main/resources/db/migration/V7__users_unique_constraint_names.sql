@@ -0,0 +1,32 @@
+-- Nombres estables para las restricciones únicas de users. Las bases creadas antes de Flyway se registraron con
+-- V1 como línea base sin ejecutarla, así que conservan los nombres que generó Hibernate (uk + sufijo aleatorio).
+-- UserService distingue el campo repetido (409) por estos nombres: se renombran buscando en pg_constraint la
+-- restricción única de una sola columna, y si no existe se crea. En bases nuevas no hay nada que hacer.
+DO $$
+DECLARE
+    target  RECORD;
+    current TEXT;
+BEGIN
+    FOR target IN
+        SELECT * FROM (VALUES ('email', 'uk_users_email'),
+                              ('username', 'uk_users_username'),
+                              ('documento', 'uk_users_documento')) AS t (column_name, constraint_name)
+    LOOP
+        SELECT c.conname INTO current
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+        WHERE c.conrelid = 'users'::regclass
+          AND c.contype = 'u'
+          AND array_length(c.conkey, 1) = 1
+          AND a.attname = target.column_name
+        ORDER BY c.conname = target.constraint_name DESC
+        LIMIT 1;
+
+        IF current IS NULL THEN
+            EXECUTE format('ALTER TABLE users ADD CONSTRAINT %I UNIQUE (%I)',
+                           target.constraint_name, target.column_name);
+        ELSIF current <> target.constraint_name THEN
+            EXECUTE format('ALTER TABLE users RENAME CONSTRAINT %I TO %I', current, target.constraint_name);
+        END IF;
+    END LOOP;
+END $$;
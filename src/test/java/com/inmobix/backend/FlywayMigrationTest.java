@@ -0,0 +1,104 @@
+package com.inmobix.backend;
+
+import com.inmobix.backend.model.OneTimeToken;
+import com.inmobix.backend.model.Property;
+import com.inmobix.backend.model.TokenPurpose;
+import com.inmobix.backend.model.User;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationState;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static com.inmobix.backend.TestUsers.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Las migraciones V1..Vn se aplican sobre un PostgreSQL vacío y el esquema resultante coincide con las
+// entidades: con ddl-auto=validate el contexto no arranca si falta una tabla o columna, o si un tipo no coincide.
+// Usa la configuración de producción (sin el perfil test); se omite si no hay Docker.
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@TestPropertySource(properties = "spring.jpa.hibernate.ddl-auto=validate")
+class FlywayMigrationTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:14-alpine");
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void allMigrationsAreApplied() {
+        MigrationInfo[] applied = flyway.info().applied();
+
+        assertThat(flyway.info().pending()).isEmpty();
+        assertThat(applied).extracting(MigrationInfo::getState).containsOnly(MigrationState.SUCCESS);
+        assertThat(Arrays.stream(applied).map(info -> info.getVersion().getVersion()))
+                .containsExactly("1", "2", "3", "4", "5", "6", "7");
+    }
+
+    @Test
+    void entitiesRoundTripThroughTheMigratedSchema() {
+        User owner = entityManager.persist(newUser("migracion"));
+        Property property = entityManager.persist(newProperty(owner));
+        OneTimeToken token = entityManager.persist(new OneTimeToken(null, "a".repeat(64), null,
+                TokenPurpose.VERIFICATION, owner, LocalDateTime.now().plusMinutes(5), null));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(entityManager.find(Property.class, property.getId()).getUser().getId()).isEqualTo(owner.getId());
+        assertThat(entityManager.find(OneTimeToken.class, token.getId()).getPurpose())
+                .isEqualTo(TokenPurpose.VERIFICATION);
+        assertThat(entityManager.find(User.class, owner.getId()).getUpdatedAt()).isNotNull();
+    }
+
+    @Test
+    void uniqueConstraintsKeepTheNamesTheServiceMapsToMessages() {
+        entityManager.persist(newUser("duplicado"));
+        entityManager.flush();
+
+        User sameEmail = newUser("otro");
+        sameEmail.setEmail("duplicado@inmobix.com");
+
+        // UserService.duplicateOf distingue el campo repetido por el nombre de la restricción
+        assertThatThrownBy(() -> {
+            entityManager.persist(sameEmail);
+            entityManager.flush();
+        }).hasMessageContaining(User.UK_EMAIL);
+    }
+
+    private static Property newProperty(User owner) {
+        Property property = new Property();
+        property.setTitle("Casa de prueba");
+        property.setDescription("Descripción");
+        property.setAddress("Calle 1");
+        property.setCity("Ocaña");
+        property.setState("Norte de Santander");
+        property.setPrice(new BigDecimal("150000000"));
+        property.setBedrooms(3);
+        property.setBathrooms(2);
+        property.setGarages(1);
+        property.setPropertyType("casa");
+        property.setTransactionType("venta");
+        property.setUser(owner);
+        return property;
+    }
+}
@@ -0,0 +1,22 @@
+package com.inmobix.backend;
+
+import com.inmobix.backend.model.Role;
+import com.inmobix.backend.model.User;
+
+// Usuario válido para persistir en las pruebas; email y documento se derivan del username para que sean únicos
+public final class TestUsers {
+
+    private TestUsers() {
+    }
+
+    public static User newUser(String username) {
+        User user = new User();
+        user.setName("Usuario " + username);
+        user.setEmail(username + "@inmobix.com");
+        user.setUsername(username);
+        user.setPassword("hash");
+        user.setDocumento("DOC-" + username);
+        user.setRole(Role.USER);
+        return user;
+    }
+}
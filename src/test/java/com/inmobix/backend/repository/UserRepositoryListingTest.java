@@ -0,0 +1,132 @@
+package com.inmobix.backend.repository;
+
+import com.inmobix.backend.dto.UserResponse;
+import com.inmobix.backend.exception.BadRequestException;
+import com.inmobix.backend.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.inmobix.backend.TestUsers.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Listado de usuarios para administradores: keyset por (columna, id), búsqueda por prefijo y proyección
+@DataJpaTest(showSql = false)
+@ActiveProfiles("test")
+class UserRepositoryListingTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        String[] names = { "Ana", "Andrés", "Beatriz", "Carlos", "Ana", "Diana", "Eduardo" };
+        for (int i = 0; i < names.length; i++) {
+            User user = newUser("user" + i);
+            user.setName(names[i]);
+            user.setDocumento(i == 5 ? "9001" : "100" + i);
+            entityManager.persist(user);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void pagesFollowTheSortWithoutGapsOrRepeats() {
+        List<String> usernames = new ArrayList<>();
+        KeysetCursor cursor = null;
+        int pages = 0;
+        do {
+            List<UserResponse> page = page(UserSpecifications.all(), "name", Sort.Direction.ASC, cursor, 3);
+            page.forEach(user -> usernames.add(user.getUsername()));
+            UserResponse last = page.get(page.size() - 1);
+            cursor = page.size() == 3 ? new KeysetCursor(last.getName(), last.getId()) : null;
+            pages++;
+        } while (cursor != null);
+
+        // Las dos "Ana" quedan desempatadas por id, en el límite entre páginas o no
+        assertThat(pages).isEqualTo(3);
+        assertThat(usernames).hasSize(7).doesNotHaveDuplicates();
+        assertThat(usernames.subList(2, 7)).containsExactly("user1", "user2", "user3", "user5", "user6");
+        assertThat(usernames.subList(0, 2)).containsExactlyInAnyOrder("user0", "user4");
+    }
+
+    @Test
+    void descendingOrderByEmail() {
+        List<UserResponse> first = page(UserSpecifications.all(), "email", Sort.Direction.DESC, null, 4);
+        UserResponse last = first.get(3);
+        List<UserResponse> second = page(UserSpecifications.all(), "email", Sort.Direction.DESC,
+                new KeysetCursor(last.getEmail(), last.getId()), 4);
+
+        assertThat(first).extracting(UserResponse::getEmail)
+                .containsExactly("user6@inmobix.com", "user5@inmobix.com", "user4@inmobix.com", "user3@inmobix.com");
+        assertThat(second).extracting(UserResponse::getEmail)
+                .containsExactly("user2@inmobix.com", "user1@inmobix.com", "user0@inmobix.com");
+    }
+
+    @Test
+    void searchMatchesPrefixOfNameEmailOrDocumento() {
+        assertThat(search("an")).extracting(UserResponse::getUsername)
+                .containsExactlyInAnyOrder("user0", "user1", "user4");
+        assertThat(search("USER3@")).extracting(UserResponse::getName).containsExactly("Carlos");
+        assertThat(search("900")).extracting(UserResponse::getName).containsExactly("Diana");
+        // Los comodines de LIKE se buscan literalmente
+        assertThat(search("%")).isEmpty();
+    }
+
+    @Test
+    void eachPageIsOneQueryWithoutLoadingEntities() {
+        Specification<User> spec = UserSpecifications.matchingPrefix("a");
+        List<UserResponse> first = page(spec, "username", Sort.Direction.ASC, null, 2);
+        UserResponse last = first.get(1);
+        page(spec, "username", Sort.Direction.ASC, new KeysetCursor(last.getUsername(), last.getId()), 2);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(first.get(0).getRole()).isEqualTo("USER");
+    }
+
+    @Test
+    void invalidSortFieldsAndCursorsAreRejected() {
+        assertThat(UserSpecifications.validSortField(null)).isEqualTo("name");
+        assertThatThrownBy(() -> UserSpecifications.validSortField("password"))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode("no-es-un-cursor"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private List<UserResponse> page(Specification<User> spec, String field, Sort.Direction direction,
+            KeysetCursor cursor, int size) {
+        if (cursor != null) {
+            spec = spec.and(UserSpecifications.after(cursor, field, direction));
+        }
+        return userRepository.findResponses(spec, UserSpecifications.sort(field, direction), size);
+    }
+
+    private List<UserResponse> search(String prefix) {
+        return page(UserSpecifications.matchingPrefix(prefix), "name", Sort.Direction.ASC, null, 20);
+    }
+}
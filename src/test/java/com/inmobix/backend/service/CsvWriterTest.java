@@ -0,0 +1,75 @@
+package com.inmobix.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// El escritor codifica UTF-8 a mano sobre un búfer de bytes: se compara contra String.getBytes(UTF_8)
+class CsvWriterTest {
+
+    @Test
+    void plainValuesAreWrittenAsIs() throws IOException {
+        assertThat(csv(1024, List.of("Casa", "", "150000000"), Arrays.asList(null, "Ocaña")))
+                .isEqualTo("Casa,,150000000\r\n,Ocaña\r\n");
+    }
+
+    @Test
+    void commasQuotesAndLineBreaksAreQuoted() throws IOException {
+        assertThat(csv(1024, List.of("Calle 1, apto 2", "dice \"hola\"", "línea 1\nlínea 2", "a\rb")))
+                .isEqualTo("\"Calle 1, apto 2\",\"dice \"\"hola\"\"\",\"línea 1\nlínea 2\",\"a\rb\"\r\n");
+    }
+
+    @Test
+    void multiByteCharactersAreEncodedAsUtf8() throws IOException {
+        // 2 bytes (ñ, é), 3 bytes (€, 中) y 4 bytes (emoji, par de surrogates)
+        String value = "ñé€中🏠";
+        byte[] bytes = bytes(1024, List.of(value));
+
+        assertThat(bytes).isEqualTo((value + "\r\n").getBytes(StandardCharsets.UTF_8));
+        assertThat(bytes).hasSize(2 + 2 + 3 + 3 + 4 + 2);
+    }
+
+    @Test
+    void loneSurrogatesAreReplaced() throws IOException {
+        // Igual que getBytes: un surrogate sin pareja se escribe como '?'
+        String value = "a\uD83Db\uDC00" + "\uD83D";
+        assertThat(csv(1024, List.of(value))).isEqualTo("a?b??\r\n");
+        assertThat(bytes(1024, List.of(value))).isEqualTo((value + "\r\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void valuesSpanningTheBufferBoundaryAreNotCorrupted() throws IOException {
+        // Con búferes pequeños, las secuencias multibyte y las comillas duplicadas quedan partidas entre vaciados
+        List<String> row = List.of("Ocaña 🏠", "precio \"€\", negociable", "中文");
+        byte[] expected = bytes(1024, row);
+
+        for (int bufferSize = 1; bufferSize <= 16; bufferSize++) {
+            assertThat(bytes(bufferSize, row)).as("búfer de %d bytes", bufferSize).isEqualTo(expected);
+        }
+    }
+
+    @SafeVarargs
+    private static String csv(int bufferSize, List<String>... rows) throws IOException {
+        return new String(bytes(bufferSize, rows), StandardCharsets.UTF_8);
+    }
+
+    @SafeVarargs
+    private static byte[] bytes(int bufferSize, List<String>... rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvWriter writer = new CsvWriter(out, bufferSize);
+        for (List<String> row : rows) {
+            for (String value : row) {
+                writer.field(value);
+            }
+            writer.endRow();
+        }
+        writer.flush();
+        return out.toByteArray();
+    }
+}
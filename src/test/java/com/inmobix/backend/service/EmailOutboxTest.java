@@ -0,0 +1,304 @@
+package com.inmobix.backend.service;
+
+import com.inmobix.backend.model.EmailOutbox;
+import com.inmobix.backend.model.EmailStatus;
+import com.inmobix.backend.repository.EmailOutboxRepository;
+import com.postmarkapp.postmark.Postmark;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.postmarkapp.postmark.client.ApiClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Bandeja de salida: el correo se guarda con la transacción que lo genera y se entrega después del commit,
+// en lotes por el endpoint batch y con reintentos. El ApiClient real habla con un Postmark falso local.
+@DataJpaTest(showSql = false)
+@ActiveProfiles("test")
+@Import({ EmailService.class, EmailOutboxDispatcher.class, EmailTemplateEngine.class,
+        EmailOutboxTest.FakePostmarkConfig.class })
+@TestPropertySource(properties = {
+        "app.email.outbox.poll-interval-ms=3600000",
+        "app.email.outbox.max-attempts=3",
+        "app.email.outbox.initial-backoff-seconds=60",
+        "app.email.outbox.batch-size=3"
+})
+// Transacciones reales: el despacho depende del commit
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmailOutboxTest {
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailOutboxDispatcher dispatcher;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private FakePostmarkServer postmark;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        outboxRepository.deleteAll();
+        postmark.reset();
+    }
+
+    @Test
+    void rolledBackTransactionLeavesNoEmail() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            emailService.queueEmail("ana@inmobix.com", new EmailMessage.Verification("Ana", "123456"));
+            status.setRollbackOnly();
+        });
+
+        dispatcher.dispatchDue();
+
+        assertThat(outboxRepository.count()).isZero();
+        assertThat(postmark.requests).isEmpty();
+    }
+
+    @Test
+    void committedEmailIsDeliveredAfterCommit() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                emailService.queueEmail("ana@inmobix.com", new EmailMessage.Verification("Ana", "123456")));
+
+        // Lo entrega el aviso posterior al commit, sin esperar al sondeo
+        EmailOutbox email = awaitStatus(EmailStatus.SENT);
+        assertThat(email.getAttempts()).isEqualTo(1);
+        assertThat(email.getMessageId()).isEqualTo("msg-1");
+        assertThat(email.getSentAt()).isNotNull();
+
+        assertThat(postmark.messages()).hasSize(1);
+        Map<String, Object> message = postmark.messages().get(0);
+        assertThat(message.get("To")).isEqualTo("ana@inmobix.com");
+        assertThat(message.get("Subject")).isEqualTo("Verifica tu cuenta de Inmobix");
+        assertThat((String) message.get("HtmlBody")).startsWith("<!DOCTYPE html>")
+                .contains("¡Bienvenido a Inmobix, Ana!").contains("letter-spacing:8px;\">123456</h1>");
+        assertThat((String) message.get("TextBody")).contains("Gracias por registrarte").contains("CÓDIGO: 123456");
+    }
+
+    @Test
+    void emailsQueuedTogetherAreSentInOneBatchWithPerMessageResults() {
+        postmark.rejectedRecipients.add("no-es-un-correo");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            emailService.queueEmail("ana@inmobix.com", new EmailMessage.Verification("Ana", "123456"));
+            emailService.queueEmail("no-es-un-correo", new EmailMessage.Verification("X", "123456"));
+            emailService.queueEmail("luis@inmobix.com", new EmailMessage.Verification("Luis", "123456"));
+        });
+
+        List<EmailOutbox> emails = awaitAll(3, email -> email.getStatus() != EmailStatus.PENDING);
+
+        // Una sola petición a /email/batch con los tres mensajes
+        assertThat(postmark.requests).hasSize(1);
+        assertThat(postmark.requests.get(0)).extracting(message -> message.get("To"))
+                .containsExactlyInAnyOrder("ana@inmobix.com", "no-es-un-correo", "luis@inmobix.com");
+
+        // Cada fila recibe el resultado de su propio mensaje
+        Map<String, EmailOutbox> byRecipient = emails.stream()
+                .collect(Collectors.toMap(EmailOutbox::getRecipient, email -> email));
+        assertThat(byRecipient.get("ana@inmobix.com").getStatus()).isEqualTo(EmailStatus.SENT);
+        assertThat(byRecipient.get("luis@inmobix.com").getStatus()).isEqualTo(EmailStatus.SENT);
+        assertThat(byRecipient.get("ana@inmobix.com").getMessageId())
+                .isNotEqualTo(byRecipient.get("luis@inmobix.com").getMessageId());
+        EmailOutbox rejected = byRecipient.get("no-es-un-correo");
+        assertThat(rejected.getStatus()).isEqualTo(EmailStatus.FAILED);
+        assertThat(rejected.getMessageId()).isNull();
+        assertThat(rejected.getLastError()).startsWith("300: ").contains("Illegal email address");
+    }
+
+    @Test
+    void backlogLargerThanBatchSizeIsSplitIntoBatches() {
+        long callsBefore = postmarkCalls("success");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < 7; i++) {
+                emailService.queueEmail("user" + i + "@inmobix.com",
+                        new EmailMessage.Verification("Usuario", "123456"));
+            }
+        });
+
+        awaitAll(7, email -> email.getStatus() == EmailStatus.SENT);
+        assertThat(postmark.requests).extracting(List::size).containsExactly(3, 3, 1);
+        assertThat(postmarkCalls("success") - callsBefore).isEqualTo(3);
+    }
+
+    @Test
+    void failedDeliveryIsRetriedWithBackoff() {
+        postmark.failures.set(1);
+        long errorsBefore = postmarkCalls("error");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                emailService.queueEmail("ana@inmobix.com", new EmailMessage.PasswordReset("Ana", "654321")));
+
+        EmailOutbox failed = awaitAttempts(1);
+        assertThat(failed.getStatus()).isEqualTo(EmailStatus.PENDING);
+        assertThat(failed.getLastError()).contains("Postmark no disponible");
+        assertThat(postmarkCalls("error") - errorsBefore).isEqualTo(1);
+        assertThat(failed.getNextAttemptAt()).isAfter(LocalDateTime.now().plusSeconds(30));
+
+        // Antes de que venza el reintento no se vuelve a intentar
+        dispatcher.dispatchDue();
+        assertThat(postmark.requests).hasSize(1);
+
+        makeDue(failed);
+        dispatcher.dispatchDue();
+
+        EmailOutbox sent = outboxRepository.findById(failed.getId()).orElseThrow();
+        assertThat(sent.getStatus()).isEqualTo(EmailStatus.SENT);
+        assertThat(sent.getAttempts()).isEqualTo(2);
+        assertThat(sent.getLastError()).isNull();
+    }
+
+    @Test
+    void emailIsDiscardedAfterMaxAttempts() {
+        postmark.failures.set(Integer.MAX_VALUE);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                emailService.queueEmail("ana@inmobix.com", new EmailMessage.EditConfirmation("Ana", "token")));
+
+        EmailOutbox email = awaitAttempts(1);
+        for (int attempt = 2; attempt <= 3; attempt++) {
+            makeDue(email);
+            dispatcher.dispatchDue();
+        }
+
+        EmailOutbox failed = outboxRepository.findById(email.getId()).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(EmailStatus.FAILED);
+        assertThat(failed.getAttempts()).isEqualTo(3);
+
+        makeDue(failed);
+        dispatcher.dispatchDue();
+        assertThat(postmark.requests).hasSize(3);
+    }
+
+    @Test
+    void rejectedMessageIsNotRetried() {
+        postmark.rejectedRecipients.add("no-es-un-correo");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                emailService.queueEmail("no-es-un-correo", new EmailMessage.EditConfirmation("Ana", "token")));
+
+        EmailOutbox email = awaitStatus(EmailStatus.FAILED);
+        assertThat(email.getAttempts()).isEqualTo(1);
+        assertThat(email.getLastError()).contains("Illegal email address 'no-es-un-correo'");
+        assertThat(postmark.requests).hasSize(1);
+    }
+
+    @Test
+    void sentAndFailedEmailsArePurgedAfterRetention() {
+        outboxRepository.save(outboxRow(EmailStatus.SENT, LocalDateTime.now().minusDays(8)));
+        EmailOutbox failed = outboxRepository.save(outboxRow(EmailStatus.FAILED, null));
+        EmailOutbox pending = outboxRepository.save(outboxRow(EmailStatus.PENDING, null));
+
+        dispatcher.deleteOldFinished();
+        assertThat(outboxRepository.findAll()).extracting(EmailOutbox::getId)
+                .containsExactlyInAnyOrder(failed.getId(), pending.getId());
+
+        // Con retención cero el FAILED recién creado también vence; el pendiente nunca se purga
+        ReflectionTestUtils.setField(dispatcher, "retentionDays", 0L);
+        try {
+            dispatcher.deleteOldFinished();
+        } finally {
+            ReflectionTestUtils.setField(dispatcher, "retentionDays", 7L);
+        }
+        assertThat(outboxRepository.findAll()).extracting(EmailOutbox::getId).containsExactly(pending.getId());
+    }
+
+    private static EmailOutbox outboxRow(EmailStatus status, LocalDateTime sentAt) {
+        EmailOutbox email = new EmailOutbox();
+        email.setRecipient("ana@inmobix.com");
+        email.setSubject("Código");
+        email.setHtmlBody("<p>123456</p>");
+        email.setTextBody("123456");
+        email.setStatus(status);
+        // Fuera del alcance del despachador durante la prueba
+        email.setNextAttemptAt(LocalDateTime.now().plusDays(1));
+        email.setSentAt(sentAt);
+        return email;
+    }
+
+    private void makeDue(EmailOutbox email) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                outboxRepository.reschedule(email.getId(), LocalDateTime.now().minusSeconds(1), email.getLastError()));
+    }
+
+    private EmailOutbox awaitStatus(EmailStatus status) {
+        return await(email -> email.getStatus() == status);
+    }
+
+    private EmailOutbox awaitAttempts(int attempts) {
+        return await(email -> email.getAttempts() == attempts && email.getLastError() != null);
+    }
+
+    private EmailOutbox await(Predicate<EmailOutbox> condition) {
+        return awaitAll(1, condition).get(0);
+    }
+
+    private List<EmailOutbox> awaitAll(int count, Predicate<EmailOutbox> condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            List<EmailOutbox> emails = outboxRepository.findAll();
+            if (emails.size() == count && emails.stream().allMatch(condition)) {
+                emails.sort(Comparator.comparing(EmailOutbox::getCreatedAt));
+                return emails;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        throw new AssertionError("La bandeja no llegó al estado esperado: " + outboxRepository.findAll());
+    }
+
+    // El registro se comparte entre pruebas: se comparan diferencias
+    private long postmarkCalls(String outcome) {
+        Timer timer = meterRegistry.find("email.postmark.requests").tag("outcome", outcome).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    @TestConfiguration
+    static class FakePostmarkConfig {
+
+        @Bean(destroyMethod = "stop")
+        FakePostmarkServer fakePostmarkServer() throws IOException {
+            return new FakePostmarkServer();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ApiClient postmarkClient(FakePostmarkServer server) {
+            return Postmark.getApiClient(FakePostmarkServer.TOKEN, false, server.host());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.inmobix.backend.service;
+
+import com.inmobix.backend.service.EmailTemplateEngine.RenderedEmail;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Plantillas de correo: se cargan todas al crear el motor y cada render produce HTML y texto juntos
+class EmailTemplateEngineTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EmailTemplateEngine engine = new EmailTemplateEngine(meterRegistry);
+
+    @Test
+    void everyTemplateRendersAllItsParametersInBothVariants() {
+        for (EmailTemplate template : EmailTemplate.values()) {
+            String[] values = template.getParameters().stream().map(name -> "valor-" + name).toArray(String[]::new);
+
+            RenderedEmail email = engine.render(message(template, values));
+
+            assertThat(email.subject()).isEqualTo(template.getSubject());
+            assertThat(email.html()).startsWith("<!DOCTYPE html>").endsWith("</html>").doesNotContain("{{");
+            assertThat(email.text()).isNotBlank().doesNotContain("{{").doesNotContain("<");
+            for (String value : values) {
+                assertThat(email.html() + email.text()).as("%s: %s", template, value).contains(value);
+            }
+        }
+    }
+
+    @Test
+    void codeIsRenderedInHtmlAndText() {
+        RenderedEmail email = engine.render(new EmailMessage.PasswordReset("Ana", "482913"));
+
+        assertThat(email.html()).contains("Hola Ana,").contains("letter-spacing:8px;\">482913</h1>");
+        assertThat(email.text()).contains("Hola Ana,").contains("CÓDIGO: 482913");
+    }
+
+    @Test
+    void valuesAreEscapedOnlyInHtml() {
+        RenderedEmail email = engine.render(new EmailMessage.EditConfirmation("<b>Ana & \"Luis\"</b>", "token"));
+
+        assertThat(email.html()).contains("Hola &lt;b&gt;Ana &amp; &quot;Luis&quot;&lt;/b&gt;,")
+                .doesNotContain("<b>Ana");
+        assertThat(email.text()).contains("Hola <b>Ana & \"Luis\"</b>,");
+    }
+
+    @Test
+    void reusedBufferDoesNotLeakBetweenRenders() {
+        RenderedEmail large = engine.render(new EmailMessage.DeleteConfirmation("Ana",
+                String.join("", Collections.nCopies(100_000, "x"))));
+        RenderedEmail small = engine.render(new EmailMessage.EditConfirmation("Luis", "token"));
+
+        assertThat(large.text()).hasSizeGreaterThan(100_000);
+        assertThat(small.html()).contains("Hola Luis,").doesNotContain("xxx").doesNotContain("Ana");
+        assertThat(small.text()).contains("Hola Luis,").doesNotContain("xxx");
+    }
+
+    @Test
+    void parametersAreTheMessageComponentsInOrder() {
+        assertThat(EmailTemplate.PASSWORD_RESET_SUCCESS.getParameters()).containsExactly("name", "date", "url");
+
+        RenderedEmail email = engine.render(new EmailMessage.PasswordResetSuccess("Ana", "01/01/2024 10:30",
+                "https://inmobix.test"));
+        assertThat(email.text()).contains("Hola Ana,").contains("01/01/2024 10:30").contains("https://inmobix.test");
+    }
+
+    // Instancia el record de la plantilla con valores genéricos, en el orden de sus componentes
+    private static EmailMessage message(EmailTemplate template, String[] values) {
+        try {
+            Class<?>[] types = new Class<?>[values.length];
+            Arrays.fill(types, String.class);
+            return template.getMessageType().getDeclaredConstructor(types).newInstance((Object[]) values);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void renderTimeIsRecordedPerTemplate() {
+        engine.render(new EmailMessage.Verification("Ana", "123456"));
+        engine.render(new EmailMessage.Verification("Luis", "654321"));
+
+        assertThat(meterRegistry.get("email.template.render").tag("template", "verification").timer().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("email.template.render").tag("template", "password-reset").timer().count())
+                .isZero();
+    }
+}
@@ -0,0 +1,119 @@
+package com.inmobix.backend.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Servidor HTTP local que imita /email y /email/batch de Postmark: registra cada petición y responde con un
+// resultado por mensaje. Puede fallar peticiones completas (HTTP 500) o rechazar destinatarios concretos
+// (ErrorCode 300), como hace Postmark.
+class FakePostmarkServer {
+
+    static final String TOKEN = "fake-postmark-token";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpServer server;
+
+    // Cada petición recibida, con sus mensajes tal como llegaron en el JSON
+    final List<List<Map<String, Object>>> requests = new CopyOnWriteArrayList<>();
+    final AtomicInteger failures = new AtomicInteger();
+    final Set<String> rejectedRecipients = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger messageIds = new AtomicInteger();
+
+    FakePostmarkServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/email", this::handle);
+        server.start();
+    }
+
+    // Host para Postmark.getApiClient(token, false, host)
+    String host() {
+        return "localhost:" + server.getAddress().getPort();
+    }
+
+    void stop() {
+        server.stop(0);
+    }
+
+    void reset() {
+        requests.clear();
+        failures.set(0);
+        rejectedRecipients.clear();
+        messageIds.set(0);
+    }
+
+    List<Map<String, Object>> messages() {
+        return requests.stream().flatMap(List::stream).toList();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!TOKEN.equals(exchange.getRequestHeaders().getFirst("X-Postmark-Server-Token"))) {
+                respond(exchange, 401, Map.of("ErrorCode", 10, "Message", "Bad or missing API token"));
+                return;
+            }
+
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            boolean batch = exchange.getRequestURI().getPath().equals("/email/batch");
+            List<Map<String, Object>> messages = batch
+                    ? mapper.readValue(body, new TypeReference<List<Map<String, Object>>>() { })
+                    : List.of(mapper.readValue(body, new TypeReference<Map<String, Object>>() { }));
+            requests.add(messages);
+
+            if (failures.getAndDecrement() > 0) {
+                respond(exchange, 500, Map.of("ErrorCode", 0, "Message", "Postmark no disponible"));
+                return;
+            }
+
+            List<Map<String, Object>> results = new ArrayList<>(messages.size());
+            for (Map<String, Object> message : messages) {
+                results.add(result((String) message.get("To")));
+            }
+            if (batch) {
+                respond(exchange, 200, results);
+            } else {
+                Map<String, Object> result = results.get(0);
+                respond(exchange, (Integer) result.get("ErrorCode") == 0 ? 200 : 422, result);
+            }
+        }
+    }
+
+    private Map<String, Object> result(String to) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (rejectedRecipients.contains(to)) {
+            result.put("ErrorCode", 300);
+            result.put("Message", "Error parsing 'To': Illegal email address '" + to + "'.");
+            return result;
+        }
+        result.put("To", to);
+        result.put("SubmittedAt", "2024-01-01T00:00:00Z");
+        result.put("MessageID", "msg-" + messageIds.incrementAndGet());
+        result.put("ErrorCode", 0);
+        result.put("Message", "OK");
+        return result;
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] json = mapper.writeValueAsString(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.inmobix.backend.service;
+
+import com.inmobix.backend.dto.UserRequest;
+import com.inmobix.backend.exception.DuplicateResourceException;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Base creada antes de Flyway: la línea base es V1 (no se ejecuta) y las restricciones únicas de users tienen los
+// nombres que generó Hibernate. V7 las renombra y el 409 vuelve a indicar el campo repetido.
+// Se omite si no hay Docker.
+@SpringBootTest(properties = {
+        "app.email.stub=true",
+        "app.email.outbox.poll-interval-ms=3600000",
+        "app.security.bcrypt.strength=4"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class LegacySchemaDuplicateUserTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:14-alpine");
+
+    @Autowired
+    private UserService userService;
+
+    // Antes de que arranque el contexto (y su Flyway): esquema V1 sin historial y con nombres de Hibernate
+    @BeforeAll
+    static void createLegacySchema() throws SQLException {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .target("1")
+                .load()
+                .migrate();
+
+        try (Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(),
+                postgres.getPassword());
+                Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE users RENAME CONSTRAINT uk_users_email TO uk6dotkott2kjsp8vw4d0m25fb7");
+            statement.execute("ALTER TABLE users RENAME CONSTRAINT uk_users_username TO ukr43af9ap4edm43mmtq01oddj6");
+            statement.execute("ALTER TABLE users RENAME CONSTRAINT uk_users_documento TO uk_kx3kr8ip5ddygfufqxn4yd4ty");
+            statement.execute("DROP TABLE flyway_schema_history");
+        }
+    }
+
+    @Test
+    void duplicatesReportTheRepeatedField() {
+        userService.register(request("ana@inmobix.com", "ana", "DOC-1"));
+
+        assertThatThrownBy(() -> userService.register(request("ana@inmobix.com", "otra", "DOC-2")))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessage("El email ana@inmobix.com ya está registrado");
+        assertThatThrownBy(() -> userService.register(request("otra@inmobix.com", "ana", "DOC-2")))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessage("El username ana ya está registrado");
+        assertThatThrownBy(() -> userService.register(request("otra@inmobix.com", "otra", "DOC-1")))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessage("El documento DOC-1 ya está registrado");
+    }
+
+    private static UserRequest request(String email, String username, String documento) {
+        return new UserRequest("Usuario " + username, email, username, "Secreta123!", documento, null, null);
+    }
+}
@@ -0,0 +1,111 @@
+package com.inmobix.backend.service;
+
+import com.inmobix.backend.model.OneTimeToken;
+import com.inmobix.backend.model.TokenPurpose;
+import com.inmobix.backend.model.User;
+import com.inmobix.backend.repository.OneTimeTokenRepository;
+import com.inmobix.backend.service.OneTimeTokenService.IssuedToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+
+import static com.inmobix.backend.TestUsers.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+// Tokens de un solo uso: solo se guardan hashes, uno por usuario y propósito, y el barrido borra los vencidos
+@DataJpaTest(showSql = false)
+@ActiveProfiles("test")
+@Import(OneTimeTokenService.class)
+class OneTimeTokenServiceTest {
+
+    @Autowired
+    private OneTimeTokenService tokens;
+
+    @Autowired
+    private OneTimeTokenRepository repository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(newUser("token0"));
+    }
+
+    @Test
+    void issuedTokenIsFoundByItsHashWithItsUser() {
+        IssuedToken issued = tokens.issue(user, TokenPurpose.PASSWORD_RESET, Duration.ofMinutes(5), true);
+        entityManager.flush();
+        entityManager.clear();
+
+        OneTimeToken stored = tokens.find(issued.token(), TokenPurpose.PASSWORD_RESET).orElseThrow();
+
+        assertThat(stored.getUser().getEmail()).isEqualTo(user.getEmail());
+        assertThat(stored.getTokenHash()).hasSize(64).isNotEqualTo(issued.token());
+        assertThat(stored.getCodeHash()).doesNotContain(issued.code());
+        assertThat(issued.code()).matches("\\d{6}");
+        assertThat(tokens.codeMatches(stored, issued.token(), issued.code())).isTrue();
+        assertThat(tokens.codeMatches(stored, issued.token(), "000000".equals(issued.code()) ? "111111" : "000000"))
+                .isFalse();
+        assertThat(tokens.find(issued.token(), TokenPurpose.VERIFICATION)).isEmpty();
+        assertThat(tokens.find("otro", TokenPurpose.PASSWORD_RESET)).isEmpty();
+    }
+
+    @Test
+    void issuingAgainReplacesThePreviousToken() {
+        IssuedToken first = tokens.issue(user, TokenPurpose.EDIT, Duration.ofMinutes(15), false);
+        IssuedToken second = tokens.issue(user, TokenPurpose.EDIT, Duration.ofMinutes(15), false);
+        tokens.issue(user, TokenPurpose.DELETE, Duration.ofMinutes(15), false);
+        entityManager.flush();
+
+        assertThat(first.code()).isNull();
+        assertThat(tokens.find(first.token(), TokenPurpose.EDIT)).isEmpty();
+        assertThat(tokens.find(second.token(), TokenPurpose.EDIT)).isPresent();
+        assertThat(repository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void onlyUnexpiredTokensCountForTheResendLimit() {
+        IssuedToken issued = tokens.issue(user, TokenPurpose.VERIFICATION, Duration.ofMinutes(5), true);
+        // La columna guarda microsegundos
+        assertThat(tokens.activeExpiry(user.getId(), TokenPurpose.VERIFICATION)).hasValueSatisfying(expiry ->
+                assertThat(expiry).isCloseTo(issued.expiresAt(), within(1, ChronoUnit.MILLIS)));
+
+        tokens.issue(user, TokenPurpose.VERIFICATION, Duration.ofMinutes(-1), true);
+        entityManager.flush();
+
+        assertThat(tokens.activeExpiry(user.getId(), TokenPurpose.VERIFICATION)).isEmpty();
+    }
+
+    @Test
+    void sweepDeletesExpiredTokensInBatchesAfterTheGracePeriod() {
+        ReflectionTestUtils.setField(tokens, "sweepBatchSize", 2);
+        ReflectionTestUtils.setField(tokens, "expiredGraceMinutes", 60L);
+        for (int i = 1; i <= 5; i++) {
+            User other = entityManager.persist(newUser("token" + i));
+            tokens.issue(other, TokenPurpose.VERIFICATION, Duration.ofMinutes(-120), true);
+        }
+        IssuedToken recentlyExpired = tokens.issue(user, TokenPurpose.VERIFICATION, Duration.ofMinutes(-5), true);
+        IssuedToken valid = tokens.issue(user, TokenPurpose.PASSWORD_RESET, Duration.ofMinutes(5), true);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(tokens.sweepExpired()).isEqualTo(5);
+
+        assertThat(repository.count()).isEqualTo(2);
+        OneTimeToken expired = tokens.find(recentlyExpired.token(), TokenPurpose.VERIFICATION).orElseThrow();
+        assertThat(tokens.isExpired(expired)).isTrue();
+        assertThat(tokens.find(valid.token(), TokenPurpose.PASSWORD_RESET)).isPresent();
+    }
+}
@@ -0,0 +1,135 @@
+package com.inmobix.backend.service;
+
+import com.inmobix.backend.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Hashing de contraseñas en el pool acotado: métricas, rechazo rápido y actualización del factor de trabajo
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void encodeAndMatchesRunOnThePoolAndAreTimed() {
+        service = create(new BCryptPasswordEncoder(4), 2, 10, 5000);
+
+        String hash = service.encode("Secreta123!");
+
+        assertThat(service.matches("Secreta123!", hash)).isTrue();
+        assertThat(service.matches("otra", hash)).isFalse();
+        assertThat(meterRegistry.get("password.hash").tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("password.hash").tag("operation", "matches").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("password.hash.queue").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void fullPoolRejectsImmediately() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingEncoder encoder = new BlockingEncoder(release);
+        service = create(encoder, 1, 1, 10_000);
+        try {
+            // Uno ejecutando y uno en cola: el pool queda lleno
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("a"));
+            assertThat(encoder.started.await(5, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.encode("b"));
+            awaitQueued(1);
+
+            long start = System.nanoTime();
+            assertThatThrownBy(() -> service.encode("c")).isInstanceOf(ServiceUnavailableException.class);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+            assertThat(meterRegistry.get("password.hash.rejected").counter().count()).isEqualTo(1);
+
+            release.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash-a");
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash-b");
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void waitLongerThanTimeoutIsRejected() {
+        CountDownLatch release = new CountDownLatch(1);
+        service = create(new BlockingEncoder(release), 1, 10, 100);
+        try {
+            assertThatThrownBy(() -> service.encode("a")).isInstanceOf(ServiceUnavailableException.class);
+            assertThat(meterRegistry.get("password.hash.rejected").counter().count()).isEqualTo(1);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void weakerHashIsUpgradedToTheConfiguredStrength() {
+        String oldHash = new BCryptPasswordEncoder(4).encode("Secreta123!");
+        service = create(new BCryptPasswordEncoder(5), 2, 10, 5000);
+
+        String upgraded = service.upgradeIfNeeded("Secreta123!", oldHash);
+
+        assertThat(upgraded).startsWith("$2a$05$");
+        assertThat(service.matches("Secreta123!", upgraded)).isTrue();
+        assertThat(service.upgradeIfNeeded("Secreta123!", upgraded)).isNull();
+        assertThat(meterRegistry.get("password.hash.upgraded").counter().count()).isEqualTo(1);
+    }
+
+    private PasswordHashingService create(PasswordEncoder encoder, int threads, int queueCapacity, long waitTimeoutMs) {
+        PasswordHashingService created = new PasswordHashingService(encoder, meterRegistry);
+        ReflectionTestUtils.setField(created, "threads", threads);
+        ReflectionTestUtils.setField(created, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(created, "waitTimeoutMs", waitTimeoutMs);
+        created.init();
+        return created;
+    }
+
+    private void awaitQueued(int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("password.hash.queue.size").gauge().value() < size) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    // Encoder que no termina hasta que se libera el latch, para llenar el pool
+    private static class BlockingEncoder implements PasswordEncoder {
+
+        private final CountDownLatch release;
+        final CountDownLatch started = new CountDownLatch(1);
+
+        BlockingEncoder(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash-" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
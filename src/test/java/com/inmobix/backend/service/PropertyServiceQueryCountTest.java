@@ -0,0 +1,138 @@
+package com.inmobix.backend.service;
+
+import com.inmobix.backend.dto.CursorPage;
+import com.inmobix.backend.dto.PropertyResponse;
+import com.inmobix.backend.dto.PropertySearchCriteria;
+import com.inmobix.backend.dto.PropertySummary;
+import com.inmobix.backend.model.Property;
+import com.inmobix.backend.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static com.inmobix.backend.TestUsers.newUser;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Verifica que los listados no disparen un SELECT adicional por propietario (N+1)
+@DataJpaTest(showSql = false)
+@AutoConfigureJson
+@ActiveProfiles("test")
+@Import(PropertyService.class)
+class PropertyServiceQueryCountTest {
+
+    @Autowired
+    private PropertyService propertyService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private UUID firstPropertyId;
+
+    @BeforeEach
+    void setUp() {
+        for (int u = 0; u < 3; u++) {
+            User owner = newUser("propietario" + u);
+            owner.setPhone("300000000" + u);
+            entityManager.persist(owner);
+            for (int p = 0; p < 4; p++) {
+                Property property = entityManager.persist(newProperty(owner, "Casa " + u + "-" + p));
+                if (firstPropertyId == null) {
+                    firstPropertyId = property.getId();
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listingLoadsOwnersInSingleStatement() {
+        CursorPage<PropertyResponse> page = propertyService.getAll(null, 50, PropertyResponse.class);
+
+        assertThat(page.getContent()).hasSize(12);
+        assertThat(page.getContent()).allSatisfy(response -> {
+            assertThat(response.getUserName()).isNotNull();
+            assertThat(response.getUserEmail()).isNotNull();
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void nextPageAlsoUsesSingleStatement() {
+        CursorPage<PropertyResponse> first = propertyService.getAll(null, 5, PropertyResponse.class);
+        statistics.clear();
+
+        CursorPage<PropertyResponse> second = propertyService.getAll(first.getNextCursor(), 5, PropertyResponse.class);
+
+        assertThat(second.getContent()).hasSize(5);
+        assertThat(second.getContent()).extracting(PropertyResponse::getId)
+                .doesNotContainAnyElementsOf(first.getContent().stream().map(PropertyResponse::getId).toList());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void searchLoadsOwnersInSingleStatement() {
+        PropertySearchCriteria criteria = new PropertySearchCriteria();
+        criteria.setCity("Ocaña");
+        criteria.setMinBedrooms(2);
+
+        CursorPage<PropertyResponse> page = propertyService.search(criteria, null, 50, PropertyResponse.class);
+
+        assertThat(page.getContent()).hasSize(12);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void summaryListingReadsOnlyProjectedColumns() {
+        CursorPage<PropertySummary> page = propertyService.getAll(null, 50, PropertySummary.class);
+
+        assertThat(page.getContent()).hasSize(12);
+        assertThat(page.getContent()).allSatisfy(summary -> assertThat(summary.getTitle()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void detailLoadsOwnerInSingleStatement() {
+        PropertyResponse response = propertyService.getById(firstPropertyId);
+
+        assertThat(response.getUserName()).isNotNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private Property newProperty(User owner, String title) {
+        Property property = new Property();
+        property.setTitle(title);
+        property.setDescription("Descripción de " + title);
+        property.setAddress("Calle 1");
+        property.setCity("Ocaña");
+        property.setState("Norte de Santander");
+        property.setPrice(new BigDecimal("150000000"));
+        property.setBedrooms(3);
+        property.setBathrooms(2);
+        property.setGarages(1);
+        property.setPropertyType("casa");
+        property.setTransactionType("venta");
+        property.setUser(owner);
+        return property;
+    }
+}
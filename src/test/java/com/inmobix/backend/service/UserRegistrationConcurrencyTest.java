@@ -0,0 +1,220 @@
+package com.inmobix.backend.service;
+
+import com.inmobix.backend.config.AppConfig;
+import com.inmobix.backend.config.EmailConfig;
+import com.inmobix.backend.dto.UserRequest;
+import com.inmobix.backend.dto.UserUpdateRequest;
+import com.inmobix.backend.exception.BadRequestException;
+import com.inmobix.backend.exception.DuplicateResourceException;
+import com.inmobix.backend.model.TokenPurpose;
+import com.inmobix.backend.model.User;
+import com.inmobix.backend.repository.EmailOutboxRepository;
+import com.inmobix.backend.repository.OneTimeTokenRepository;
+import com.inmobix.backend.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Registro sin consultas previas de existencia: las restricciones únicas deciden y su violación se traduce a 409,
+// también cuando varios registros con los mismos datos llegan a la vez
+@DataJpaTest(showSql = false)
+@AutoConfigureJson
+@ActiveProfiles("test")
+@Import({ UserService.class, PasswordHashingService.class, OneTimeTokenService.class, EmailService.class,
+        EmailOutboxDispatcher.class, EmailTemplateEngine.class, PropertyService.class, AppConfig.class,
+        EmailConfig.class, UserRegistrationConcurrencyTest.MetricsConfig.class })
+@TestPropertySource(properties = {
+        "app.email.stub=true",
+        "app.email.outbox.poll-interval-ms=3600000",
+        "app.security.bcrypt.strength=4",
+        "app.security.password.threads=4",
+        "app.security.password.queue-capacity=100",
+        "app.url.backend=http://localhost:8080",
+        "app.url.frontend=http://localhost:4200"
+})
+// Transacciones reales: cada registro concurrente confirma o falla por su cuenta
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserRegistrationConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OneTimeTokenService tokens;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OneTimeTokenRepository tokenRepository;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        outboxRepository.deleteAll();
+        tokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentRegistrationsWithTheSameEmailCreateExactlyOneUser() throws Exception {
+        List<Object> results = registerConcurrently(i -> request("ana@inmobix.com", "ana" + i, "DOC-" + i));
+
+        assertThat(results).filteredOn(String.class::isInstance).hasSize(1);
+        assertThat(results).filteredOn(DuplicateResourceException.class::isInstance).hasSize(THREADS - 1)
+                .allSatisfy(e -> assertThat(((Exception) e).getMessage())
+                        .isEqualTo("El email ana@inmobix.com ya está registrado"));
+        assertThat(userRepository.count()).isEqualTo(1);
+        // Los intentos rechazados no dejan tokens ni correos
+        assertThat(tokenRepository.count()).isEqualTo(1);
+        assertThat(outboxRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentRegistrationsWithTheSameDocumentoCreateExactlyOneUser() throws Exception {
+        List<Object> results = registerConcurrently(i -> request("u" + i + "@inmobix.com", "u" + i, "DOC-1"));
+
+        assertThat(results).filteredOn(String.class::isInstance).hasSize(1);
+        assertThat(results).filteredOn(DuplicateResourceException.class::isInstance).hasSize(THREADS - 1)
+                .allSatisfy(e -> assertThat(((Exception) e).getMessage())
+                        .isEqualTo("El documento DOC-1 ya está registrado"));
+        assertThat(userRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentDistinctRegistrationsAllSucceed() throws Exception {
+        List<Object> results = registerConcurrently(i -> request("u" + i + "@inmobix.com", "u" + i, "DOC-" + i));
+
+        assertThat(results).allMatch(String.class::isInstance);
+        assertThat(userRepository.count()).isEqualTo(THREADS);
+    }
+
+    @Test
+    void duplicateUsernameIsReportedAsConflict() {
+        userService.register(request("ana@inmobix.com", "ana", "DOC-1"));
+
+        assertThatThrownBy(() -> userService.register(request("otra@inmobix.com", "ana", "DOC-2")))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessage("El username ana ya está registrado");
+    }
+
+    @Test
+    void updateToAnEmailInUseIsRejectedAndKeepsTheEditToken() {
+        userService.register(request("ana@inmobix.com", "ana", "DOC-1"));
+        User luis = userRepository.findById(userService.register(request("luis@inmobix.com", "luis", "DOC-2"))
+                .getId()).orElseThrow();
+        String editToken = new TransactionTemplate(transactionManager).execute(status ->
+                tokens.issue(luis, TokenPurpose.EDIT, Duration.ofMinutes(15), false).token());
+
+        UserUpdateRequest update = new UserUpdateRequest("Luis", "ana@inmobix.com", "luis", null, null, null, null);
+        assertThatThrownBy(() -> userService.confirmUpdate(editToken, update))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessage("El email ana@inmobix.com ya está en uso");
+
+        assertThat(userRepository.findById(luis.getId()).orElseThrow().getEmail()).isEqualTo("luis@inmobix.com");
+        assertThat(tokens.find(editToken, TokenPurpose.EDIT)).isPresent();
+    }
+
+    // Un token inventado, vencido o con código incorrecto se rechaza sin ocupar el pool de BCrypt del login
+    @Test
+    void invalidTokensNeverReachPasswordHashing() {
+        userService.register(request("ana@inmobix.com", "ana", "DOC-1"));
+        String resetToken = userService.forgotPassword("ana@inmobix.com").getResetPasswordToken();
+        UserUpdateRequest update = new UserUpdateRequest("Ana", "ana@inmobix.com", "ana", "Nueva123!", null, null,
+                null);
+        double encodes = encodeCount();
+
+        assertThatThrownBy(() -> userService.resetPassword("token-inventado", "123456", "Nueva123!"))
+                .isInstanceOf(BadRequestException.class).hasMessage("Token de recuperación inválido");
+        assertThatThrownBy(() -> userService.resetPassword(resetToken, "no-es-el-codigo", "Nueva123!"))
+                .isInstanceOf(BadRequestException.class).hasMessage("Código inválido");
+        assertThatThrownBy(() -> userService.confirmUpdate("token-inventado", update))
+                .isInstanceOf(BadRequestException.class).hasMessage("Token inválido o expirado");
+
+        assertThat(encodeCount()).isEqualTo(encodes);
+    }
+
+    private double encodeCount() {
+        Timer encode = meterRegistry.find("password.hash").tag("operation", "encode").timer();
+        return encode == null ? 0 : encode.count();
+    }
+
+    // Lanza THREADS registros a la vez; cada resultado es el token de verificación o la excepción lanzada
+    private List<Object> registerConcurrently(IntFunction<UserRequest> requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                UserRequest request = requests.apply(i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return userService.register(request).getVerificationToken();
+                    } catch (RuntimeException e) {
+                        return e;
+                    }
+                }));
+            }
+            start.countDown();
+
+            List<Object> results = new ArrayList<>();
+            for (Future<Object> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static UserRequest request(String email, String username, String documento) {
+        return new UserRequest("Usuario " + username, email, username, "Secreta123!", documento, null, null);
+    }
+
+    @TestConfiguration
+    static class MetricsConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}